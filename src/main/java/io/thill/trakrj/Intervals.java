@@ -53,7 +53,7 @@ public class Intervals {
    * @return The interval
    */
   public static Interval hours(int hours) {
-    return new MillisInterval(TimeUnit.MINUTES.toMillis(hours));
+    return new MillisInterval(TimeUnit.HOURS.toMillis(hours));
   }
 
   /**
@@ -109,11 +109,12 @@ public class Intervals {
 
     @Override
     public long first(long timestamp) {
-      long first = midnightOf(timestamp);
-      while(first < timestamp) {
-        first = next(first);
+      final long midnight = midnightOf(timestamp);
+      if(timestamp <= midnight) {
+        return midnight;
       }
-      return first;
+      // round up to the next multiple of millis after midnight
+      return midnight + ((timestamp - midnight + millis - 1) / millis) * millis;
     }
 
     @Override
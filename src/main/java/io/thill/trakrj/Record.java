@@ -18,6 +18,18 @@ package io.thill.trakrj;
  * @author Eric Thill
  */
 public interface Record {
+  /**
+   * The value returned by {@link Record#getTimestamp()} when the record was not given an event timestamp
+   */
+  long NO_TIMESTAMP = Long.MIN_VALUE;
+
+  /**
+   * Get the event timestamp
+   *
+   * @return The event timestamp in milliseconds, or {@link Record#NO_TIMESTAMP} if none was given
+   */
+  long getTimestamp();
+
   /**
    * Get the long key
    *
@@ -22,7 +22,31 @@ public interface Stat {
   Object objectValue();
   StatType type();
 
+  /**
+   * How exporters should interpret the stat's value over time. Defaults to {@link StatKind#GAUGE}.
+   *
+   * @return The stat kind
+   */
+  default StatKind kind() {
+    return StatKind.GAUGE;
+  }
+
   enum StatType {
     LONG, DOUBLE, OBJECT
   }
+
+  enum StatKind {
+    /**
+     * A point-in-time value that may go up or down
+     */
+    GAUGE,
+    /**
+     * A cumulative total that never decreases
+     */
+    COUNTER,
+    /**
+     * The amount a counter increased by since the previous log
+     */
+    DELTA
+  }
 }
@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj;
+
+import io.thill.trakrj.Stat.StatKind;
+
+import java.util.List;
+
+/**
+ * A push-style alternative to {@link Tracker#stats()}. A tracker passes each of its stats to the visitor's primitive callbacks, so stats can be emitted
+ * without allocating {@link Stat} instances or lists. The given name is only valid for the duration of the callback, since trackers may reuse the same
+ * {@link CharSequence} for every stat. Implementations that need to keep the name must copy it.
+ *
+ * @author Eric Thill
+ */
+public interface StatVisitor {
+
+  void visitLong(CharSequence name, long value);
+
+  void visitDouble(CharSequence name, double value);
+
+  void visitObject(CharSequence name, Object value);
+
+  /**
+   * Visit a stat that has no value
+   *
+   * @param name The stat name
+   * @param type The stat type
+   */
+  void visitNull(CharSequence name, Stat.StatType type);
+
+  /**
+   * Visit a long stat whose kind is {@link StatKind#COUNTER} or {@link StatKind#DELTA}. The default implementation calls {@link #visitLong(CharSequence,
+   * long)}.
+   *
+   * @param name  The stat name
+   * @param value The stat value
+   * @param kind  The stat kind
+   */
+  default void visitCounter(CharSequence name, long value, StatKind kind) {
+    visitLong(name, value);
+  }
+
+  /**
+   * Pass the given stat to the given visitor
+   *
+   * @param stat    The stat
+   * @param visitor The visitor
+   */
+  static void visit(Stat stat, StatVisitor visitor) {
+    if(stat.isNull()) {
+      visitor.visitNull(stat.name(), stat.type());
+      return;
+    }
+    switch(stat.type()) {
+      case LONG:
+        if(stat.kind() == StatKind.GAUGE) {
+          visitor.visitLong(stat.name(), stat.longValue());
+        } else {
+          visitor.visitCounter(stat.name(), stat.longValue(), stat.kind());
+        }
+        break;
+      case DOUBLE:
+        visitor.visitDouble(stat.name(), stat.doubleValue());
+        break;
+      case OBJECT:
+        visitor.visitObject(stat.name(), stat.objectValue());
+        break;
+    }
+  }
+
+  /**
+   * Pass each of the given stats to the given visitor
+   *
+   * @param stats   The stats
+   * @param visitor The visitor
+   */
+  static void visitAll(List<? extends Stat> stats, StatVisitor visitor) {
+    for(int i = 0; i < stats.size(); i++) {
+      visit(stats.get(i), visitor);
+    }
+  }
+}
@@ -11,6 +11,7 @@
  */
 package io.thill.trakrj;
 
+import io.thill.trakrj.clock.Clock;
 import io.thill.trakrj.conductor.Conductor;
 import io.thill.trakrj.conductor.DefaultConductor;
 import io.thill.trakrj.logger.StatLogger;
@@ -73,6 +74,20 @@ public class Stats implements AutoCloseable {
     conductor.addTracker(id, tracker, logInterval, resetInterval);
   }
 
+  /**
+   * Register a tracker with the underlying conductor that is not logged while it is idle. The tracker will only be logged when it has received records or has
+   * been reset on-demand since its previous log, or when the keep-alive interval has passed since its previous log.
+   *
+   * @param id                The unique ID of this tracker
+   * @param tracker           The tracker to register
+   * @param logInterval       The interval to log the tracker using the underlying {@link io.thill.trakrj.logger.StatLogger}
+   * @param resetInterval     The interval to reset the tracker
+   * @param keepAliveInterval The interval to log the tracker even when it is idle. {@link Intervals#never()} will never log an idle tracker.
+   */
+  public void register(TrackerId id, Tracker tracker, Interval logInterval, Interval resetInterval, Interval keepAliveInterval) {
+    conductor.addTracker(id, tracker, logInterval, resetInterval, keepAliveInterval);
+  }
+
   /**
    * Record a single long value.
    *
@@ -193,6 +208,48 @@ public class Stats implements AutoCloseable {
     conductor.record(id, 0, Double.NaN, key, 0, Double.NaN, value);
   }
 
+  /**
+   * Record a single long value that occurred at the given event timestamp.
+   *
+   * @param id        The id correlated with the tracker to record this value.
+   * @param timestamp The event timestamp in milliseconds.
+   * @param value     The value to record.
+   */
+  public void recordAt(TrackerId id, long timestamp, long value) {
+    conductor.recordAt(id, timestamp, 0, Double.NaN, null, value, Double.NaN, null);
+  }
+
+  /**
+   * Record a single double value that occurred at the given event timestamp.
+   *
+   * @param id        The id correlated with the tracker to record this value.
+   * @param timestamp The event timestamp in milliseconds.
+   * @param value     The value to record.
+   */
+  public void recordAt(TrackerId id, long timestamp, double value) {
+    conductor.recordAt(id, timestamp, 0, Double.NaN, null, 0, value, null);
+  }
+
+  /**
+   * Record a single Object value that occurred at the given event timestamp.
+   *
+   * @param id        The id correlated with the tracker to record this value.
+   * @param timestamp The event timestamp in milliseconds.
+   * @param value     The value to record.
+   */
+  public void recordAt(TrackerId id, long timestamp, Object value) {
+    conductor.recordAt(id, timestamp, 0, Double.NaN, null, 0, Double.NaN, value);
+  }
+
+  /**
+   * Get the clock used by the underlying conductor. This may be used to timestamp records passed to {@link Stats#recordAt(TrackerId, long, long)}.
+   *
+   * @return The clock
+   */
+  public Clock clock() {
+    return conductor.clock();
+  }
+
   /**
    * Reset the tracker correlated with the given ID
    *
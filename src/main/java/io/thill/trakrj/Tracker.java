@@ -24,5 +24,63 @@ public interface Tracker {
 
   void reset();
 
+  /**
+   * Called by the conductor thread instead of {@link #reset()} when the reset was requested on-demand through {@link Stats#reset(TrackerId)}, rather than by
+   * the tracker's reset interval. The default implementation calls {@link #reset()}.
+   */
+  default void resetOnDemand() {
+    reset();
+  }
+
   List<? extends Stat> stats();
+
+  /**
+   * Pass each of this tracker's stats to the given visitor. Trackers whose {@link #stats()} allocates should override this method to emit their stats without
+   * allocating. The default implementation visits every stat returned by {@link #stats()}.
+   *
+   * @param visitor The visitor
+   */
+  default void visit(StatVisitor visitor) {
+    StatVisitor.visitAll(stats(), visitor);
+  }
+
+  /**
+   * Called by the conductor thread at each scheduled log of this tracker, before it is logged by any {@link io.thill.trakrj.logger.StatLogger}. The default
+   * implementation does nothing.
+   *
+   * @param timestamp The scheduled log timestamp
+   */
+  default void tick(long timestamp) {
+
+  }
+
+  /**
+   * Called by the conductor thread after {@link #tick(long)} to decide whether a tracker registered with a keep-alive interval should be logged. Records and
+   * resets already count as changes, so this only needs to report changes that happen any other way, such as a polled value, values recorded without passing
+   * through the conductor, or a window rolling over at a tick. The default implementation returns false.
+   *
+   * @return true if the logged stats may have changed since the previous tick for a reason other than a record or reset
+   */
+  default boolean changedSinceLastLog() {
+    return false;
+  }
+
+  /**
+   * The interval at which the conductor should call {@link #sample(long)} between logs. Called once by the conductor thread when the tracker is registered.
+   * The default implementation returns null, meaning the tracker is never sampled.
+   *
+   * @return The sample interval, or null to never sample
+   */
+  default Interval sampleInterval() {
+    return null;
+  }
+
+  /**
+   * Called by the conductor thread at each scheduled sample of this tracker, as given by {@link #sampleInterval()}. The default implementation does nothing.
+   *
+   * @param timestamp The scheduled sample timestamp
+   */
+  default void sample(long timestamp) {
+
+  }
 }
@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.clock;
+
+import io.thill.trakrj.internal.thread.SignalLatch;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A coarse {@link Clock} that caches {@link System#currentTimeMillis()} in a volatile field, updated by a daemon ticker thread. Reading the time is a single
+ * volatile read, which makes it suitable for timestamping every record. The cached time may lag the system time by up to the resolution plus any scheduling
+ * delay of the ticker thread.
+ *
+ * @author Eric Thill
+ */
+public class CachedClock implements Clock {
+
+  private static final long DEFAULT_RESOLUTION_MILLIS = 1;
+
+  private final AtomicBoolean keepRunning = new AtomicBoolean(true);
+  private final SignalLatch shutdownCompleteLatch = new SignalLatch();
+  private final long resolutionNanos;
+  private final Thread thread;
+  private volatile long millis;
+
+  /**
+   * Start a cached clock that is updated every millisecond
+   */
+  public CachedClock() {
+    this(DEFAULT_RESOLUTION_MILLIS);
+  }
+
+  /**
+   * Start a cached clock that is updated at the given resolution
+   *
+   * @param resolutionMillis The number of milliseconds between updates
+   */
+  public CachedClock(long resolutionMillis) {
+    this.resolutionNanos = TimeUnit.MILLISECONDS.toNanos(resolutionMillis);
+    this.millis = System.currentTimeMillis();
+    this.thread = new Thread(this::loop, "TrakrJ-Clock");
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  private void loop() {
+    try {
+      while(keepRunning.get()) {
+        millis = System.currentTimeMillis();
+        LockSupport.parkNanos(resolutionNanos);
+      }
+    } finally {
+      shutdownCompleteLatch.signal();
+    }
+  }
+
+  @Override
+  public long millis() {
+    return millis;
+  }
+
+  @Override
+  public void close() {
+    keepRunning.set(false);
+    LockSupport.unpark(thread);
+    shutdownCompleteLatch.await();
+  }
+
+  @Override
+  public String toString() {
+    return "CachedClock{resolutionNanos=" + resolutionNanos + "}";
+  }
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.clock;
+
+/**
+ * The source of time used by the conductor to schedule logs and resets. It may also be used by producers to timestamp records with {@link
+ * io.thill.trakrj.Stats#recordAt(io.thill.trakrj.TrackerId, long, long)}. Clocks are instantiated using reflection and must have a public constructor that
+ * takes no arguments.
+ *
+ * @author Eric Thill
+ */
+public interface Clock extends AutoCloseable {
+  /**
+   * Get the current time
+   *
+   * @return The current time in epoch milliseconds
+   */
+  long millis();
+
+  /**
+   * Register a listener to be called whenever this clock's time is changed independently of the passage of real time. This allows threads waiting on the clock
+   * to wake up. Only clocks that are set manually need to implement this. The default implementation does nothing.
+   *
+   * @param listener The listener
+   */
+  default void addListener(Runnable listener) {
+
+  }
+
+  /**
+   * Remove a listener registered with {@link #addListener(Runnable)}. The default implementation does nothing.
+   *
+   * @param listener The listener
+   */
+  default void removeListener(Runnable listener) {
+
+  }
+
+  /**
+   * Stop any threads used by this clock. The default implementation does nothing.
+   */
+  @Override
+  default void close() {
+
+  }
+}
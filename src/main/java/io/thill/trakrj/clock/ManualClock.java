@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.clock;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A {@link Clock} that only moves when it is set or advanced. This allows tests to run long intervals deterministically without waiting for them to pass.
+ *
+ * @author Eric Thill
+ */
+public class ManualClock implements Clock {
+
+  private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+  private volatile long millis;
+
+  /**
+   * Start the clock at the current system time
+   */
+  public ManualClock() {
+    this(System.currentTimeMillis());
+  }
+
+  /**
+   * Start the clock at the given time
+   *
+   * @param millis The start time in epoch milliseconds
+   */
+  public ManualClock(long millis) {
+    this.millis = millis;
+  }
+
+  @Override
+  public long millis() {
+    return millis;
+  }
+
+  /**
+   * Set the current time
+   *
+   * @param millis The time in epoch milliseconds
+   */
+  public void set(long millis) {
+    synchronized(this) {
+      this.millis = millis;
+    }
+    notifyListeners();
+  }
+
+  /**
+   * Move the current time forward
+   *
+   * @param millis The number of milliseconds to advance
+   */
+  public void advance(long millis) {
+    synchronized(this) {
+      this.millis += millis;
+    }
+    notifyListeners();
+  }
+
+  private void notifyListeners() {
+    for(Runnable listener : listeners) {
+      listener.run();
+    }
+  }
+
+  @Override
+  public void addListener(Runnable listener) {
+    listeners.add(listener);
+  }
+
+  @Override
+  public void removeListener(Runnable listener) {
+    listeners.remove(listener);
+  }
+
+  @Override
+  public String toString() {
+    return "ManualClock{millis=" + millis + "}";
+  }
+}
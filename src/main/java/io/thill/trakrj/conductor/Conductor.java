@@ -14,6 +14,8 @@ package io.thill.trakrj.conductor;
 import io.thill.trakrj.Tracker;
 import io.thill.trakrj.TrackerId;
 import io.thill.trakrj.Interval;
+import io.thill.trakrj.clock.Clock;
+import io.thill.trakrj.clock.SystemClock;
 import io.thill.trakrj.logger.StatLogger;
 
 import java.util.Map;
@@ -25,6 +27,8 @@ import java.util.Map;
  * @author Eric Thill
  */
 public interface Conductor extends AutoCloseable {
+  Clock SYSTEM_CLOCK = new SystemClock();
+
   /**
    * Configure the tracker and start any threads. This is guaranteed to be called before any other method. Any threads that are started should be marked as a
    * daemon thread so they don't prevent the JVM from shutting down.
@@ -45,6 +49,21 @@ public interface Conductor extends AutoCloseable {
    */
   void addTracker(TrackerId id, Tracker tracker, Interval logInterval, Interval resetInterval);
 
+  /**
+   * Add a tracker to handle stat records that is only logged when it has received records or has been reset since its previous log, or when its keep-alive
+   * interval has passed. The default implementation ignores the keep-alive interval and calls {@link Conductor#addTracker(TrackerId, Tracker, Interval,
+   * Interval)}.
+   *
+   * @param id                The ID of the tracker. The underlying uid must be unique. The display name will be used for logging.
+   * @param tracker           The tracker implementation to handle stat records
+   * @param logInterval       The interval to log this tracker's state
+   * @param resetInterval     The interval to reset. This interval must be a multiple of logInterval.
+   * @param keepAliveInterval The interval to log this tracker even when it is idle. null will log the tracker at every logInterval.
+   */
+  default void addTracker(TrackerId id, Tracker tracker, Interval logInterval, Interval resetInterval, Interval keepAliveInterval) {
+    addTracker(id, tracker, logInterval, resetInterval);
+  }
+
   /**
    * Dispatch a record to be handled by the tracker associated with the given {@link TrackerId}.  The associated tracker is responsible for knowing which values
    * are meaningful. Depending on the implementation of this class, some record events may be ignored due to back-pressure.
@@ -59,6 +78,23 @@ public interface Conductor extends AutoCloseable {
    */
   void record(TrackerId id, long keyLong, double keyDouble, Object keyObject, long valLong, double valDouble, Object valObject);
 
+  /**
+   * Dispatch a record with an event timestamp to be handled by the tracker associated with the given {@link TrackerId}. The default implementation ignores the
+   * timestamp and calls {@link Conductor#record(TrackerId, long, double, Object, long, double, Object)}.
+   *
+   * @param id        The ID of the tracker that will handle this event
+   * @param timestamp The event timestamp in milliseconds
+   * @param keyLong   The key, as a primitive long
+   * @param keyDouble The key, as a primitive double
+   * @param keyObject The key, as an Object. This object will be passed by reference and therefore should must be immutable.
+   * @param valLong   The value, as a primitive long
+   * @param valDouble The value, as a primitive double
+   * @param valObject The value, as an Object. This object will be passed by reference and therefore should must be immutable.
+   */
+  default void recordAt(TrackerId id, long timestamp, long keyLong, double keyDouble, Object keyObject, long valLong, double valDouble, Object valObject) {
+    record(id, keyLong, keyDouble, keyObject, valLong, valDouble, valObject);
+  }
+
   /**
    * Reset the tracker associated with the given {@link TrackerId} on demand. The underlying implementation is guaranteed to handle this event.
    *
@@ -66,6 +102,16 @@ public interface Conductor extends AutoCloseable {
    */
   void reset(TrackerId id);
 
+  /**
+   * Get the clock used by this conductor to schedule logs and resets. Producers may use it to timestamp records. The default implementation returns a {@link
+   * SystemClock}.
+   *
+   * @return The clock
+   */
+  default Clock clock() {
+    return SYSTEM_CLOCK;
+  }
+
   /**
    * Gracefully close the conductor threads. This method should block until shutdown is successful.
    */
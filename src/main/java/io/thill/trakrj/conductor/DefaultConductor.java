@@ -12,21 +12,30 @@
 package io.thill.trakrj.conductor;
 
 import io.thill.trakrj.Interval;
+import io.thill.trakrj.Record;
 import io.thill.trakrj.Tracker;
 import io.thill.trakrj.TrackerId;
+import io.thill.trakrj.clock.Clock;
 import io.thill.trakrj.internal.conductor.RecordEvent;
 import io.thill.trakrj.internal.conductor.RecordEvent.Type;
 import io.thill.trakrj.internal.conductor.RecordEventHandler;
 import io.thill.trakrj.internal.conductor.RecordEventRingBuffer;
+import io.thill.trakrj.internal.conductor.SnapshotStatLogger;
+import io.thill.trakrj.internal.load.Instantiate;
 import io.thill.trakrj.logger.StatLogger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Map;
 
+import static io.thill.trakrj.internal.load.Config.CLOCK_IMPL_SYSTEM;
+
 /**
  * The default {@link Conductor} implementation. This implementation uses an internal ring buffer. When the internal ring buffer is full, record events will be
- * missed. Should any events be missed, the number of missed events will be logged during the next {@link Tracker} log event.
+ * missed. Should any events be missed, the number of missed events will be logged during the next {@link Tracker} log event. Trackers are logged on the
+ * conductor thread unless "logging.async" is set to true, in which case trackers are snapshotted by the conductor thread and the snapshots are passed to the
+ * {@link StatLogger} from a separate logging thread. Snapshots only capture each tracker's stats and render them as "name=value" text on the logging thread, so
+ * the logger receives a snapshot instead of the tracker and {@link Tracker#toString()} is not called.
  *
  * @author Eric Thill
  */
@@ -35,21 +44,67 @@ public class DefaultConductor implements Conductor {
   private static final String DISPLAY_NAME_REGEX = "[0-9A-Za-z_]+";
   private static final String CFGKEY_RINGBUFFER_SIZE = "ringbuffer.size";
   private static final String DEFAULT_RINGBUFFER_SIZE = "4096";
+  private static final String CFGKEY_ASYNC_LOGGING = "logging.async";
+  private static final String DEFAULT_ASYNC_LOGGING = "false";
+  private static final String CFGKEY_SNAPSHOT_POOL_SIZE = "snapshot.pool.size";
+  private static final String DEFAULT_SNAPSHOT_POOL_SIZE = "4096";
+  private static final String CFGKEY_CLOCK = "clock";
+  private static final String DEFAULT_CLOCK = CLOCK_IMPL_SYSTEM;
 
   private RecordEventHandler eventHandler;
   private RecordEventRingBuffer ringBuffer;
+  private Clock clock;
+  private boolean ownsClock;
+
+  /**
+   * Use the clock given by the "clock" config property, which defaults to the system clock
+   */
+  public DefaultConductor() {
+
+  }
+
+  /**
+   * Use the given clock instead of the "clock" config property. The given clock will not be closed by this conductor.
+   *
+   * @param clock The clock
+   */
+  public DefaultConductor(Clock clock) {
+    this.clock = clock;
+  }
 
   @Override
   public void configure(Map<String, String> config, StatLogger logger) {
+    if(clock == null) {
+      try {
+        clock = Instantiate.instantiateClock(config.getOrDefault(CFGKEY_CLOCK, DEFAULT_CLOCK));
+        ownsClock = true;
+      } catch(ClassNotFoundException | InstantiationException | IllegalAccessException e) {
+        throw new IllegalArgumentException("Could not instantiate clock", e);
+      }
+    }
+
     int ringBufferSize = Integer.parseInt(config.getOrDefault(CFGKEY_RINGBUFFER_SIZE, DEFAULT_RINGBUFFER_SIZE));
     ringBuffer = new RecordEventRingBuffer(ringBufferSize);
 
-    eventHandler = new RecordEventHandler(ringBuffer, logger);
+    if(Boolean.parseBoolean(config.getOrDefault(CFGKEY_ASYNC_LOGGING, DEFAULT_ASYNC_LOGGING))) {
+      // log snapshots from a separate thread so a slow logger does not stall record processing
+      int snapshotPoolSize = Integer.parseInt(config.getOrDefault(CFGKEY_SNAPSHOT_POOL_SIZE, DEFAULT_SNAPSHOT_POOL_SIZE));
+      SnapshotStatLogger snapshotLogger = new SnapshotStatLogger(logger, snapshotPoolSize);
+      snapshotLogger.start();
+      logger = snapshotLogger;
+    }
+
+    eventHandler = new RecordEventHandler(ringBuffer, logger, clock);
     eventHandler.start();
   }
 
   @Override
   public void addTracker(TrackerId id, Tracker tracker, Interval logInterval, Interval resetInterval) {
+    addTracker(id, tracker, logInterval, resetInterval, null);
+  }
+
+  @Override
+  public void addTracker(TrackerId id, Tracker tracker, Interval logInterval, Interval resetInterval, Interval keepAliveInterval) {
     if(!id.display().matches(DISPLAY_NAME_REGEX)) {
       throw new IllegalArgumentException("Illegal display name '" + id.display() + "' does not match " + DISPLAY_NAME_REGEX);
     }
@@ -60,11 +115,17 @@ public class DefaultConductor implements Conductor {
     event.setTracker(tracker);
     event.setLogInterval(logInterval);
     event.setResetInterval(resetInterval);
+    event.setKeepAliveInterval(keepAliveInterval);
     ringBuffer.commit(event);
   }
 
   @Override
   public void record(TrackerId id, long keyLong, double keyDouble, Object keyObject, long valLong, double valDouble, Object valObject) {
+    recordAt(id, Record.NO_TIMESTAMP, keyLong, keyDouble, keyObject, valLong, valDouble, valObject);
+  }
+
+  @Override
+  public void recordAt(TrackerId id, long timestamp, long keyLong, double keyDouble, Object keyObject, long valLong, double valDouble, Object valObject) {
     RecordEvent event = ringBuffer.tryClaim();
     if(event == null) {
       eventHandler.incrementMissedEvents();
@@ -72,6 +133,7 @@ public class DefaultConductor implements Conductor {
     }
     event.setType(Type.RECORD);
     event.setId(id);
+    event.setTimestamp(timestamp);
     event.setKeyLong(keyLong);
     event.setKeyDouble(keyDouble);
     event.setKeyObject(keyObject);
@@ -89,8 +151,16 @@ public class DefaultConductor implements Conductor {
     ringBuffer.commit(event);
   }
 
+  @Override
+  public Clock clock() {
+    return clock;
+  }
+
   @Override
   public void close() {
     eventHandler.close();
+    if(ownsClock) {
+      clock.close();
+    }
   }
 }
@@ -42,6 +42,11 @@ public class DisabledConductor implements Conductor {
 
   }
 
+  @Override
+  public void recordAt(TrackerId id, long timestamp, long keyLong, double keyDouble, Object keyObject, long valLong, double valDouble, Object valObject) {
+
+  }
+
   @Override
   public void reset(TrackerId id) {
 
@@ -14,6 +14,7 @@ package io.thill.trakrj.internal.conductor;
 import io.thill.trakrj.Interval;
 import io.thill.trakrj.Intervals;
 import io.thill.trakrj.TrackerId;
+import io.thill.trakrj.clock.Clock;
 import io.thill.trakrj.internal.conductor.RecordEvent.Type;
 import io.thill.trakrj.internal.thread.SignalLatch;
 
@@ -33,12 +34,17 @@ public class LogScheduler implements AutoCloseable {
   private final List<TrackerContext> trackers = new ArrayList<>();
   private final AtomicBoolean keepRunning = new AtomicBoolean(true);
   private final Object wakeup = new Object();
+  private final Runnable clockListener = this::wakeup;
   private final SignalLatch shutdownCompleteLatch = new SignalLatch();
   private final RecordEventRingBuffer ringBuffer;
+  private final Clock clock;
   private final Thread thread;
+  private long wakeups;
 
-  public LogScheduler(RecordEventRingBuffer ringBuffer) {
+  public LogScheduler(RecordEventRingBuffer ringBuffer, Clock clock) {
     this.ringBuffer = ringBuffer;
+    this.clock = clock;
+    this.clock.addListener(clockListener);
     this.thread = new Thread(this::loop, "TrakrJ-Scheduler");
     this.thread.setDaemon(true);
   }
@@ -50,6 +56,7 @@ public class LogScheduler implements AutoCloseable {
   @Override
   public void close() {
     keepRunning.set(false);
+    clock.removeListener(clockListener);
     thread.interrupt();
     shutdownCompleteLatch.await();
   }
@@ -57,46 +64,64 @@ public class LogScheduler implements AutoCloseable {
   private void loop() {
     try {
       while(keepRunning.get()) {
-        final long now = System.currentTimeMillis();
+        final long observedWakeups = wakeups();
+        final long now = clock.millis();
         long nearestDispatch = now + MIN_SLEEP;
+        Tick tick = null;
         synchronized(trackers) {
           for(int i = 0; i < trackers.size(); i++) {
             TrackerContext tc = trackers.get(i);
             long timeToDispatch = tc.nextLogDispatch - now;
             // check if this Tracker's dispatch time has surpassed
             if(timeToDispatch <= 0) {
+              if(tick == null) {
+                tick = new Tick();
+              }
               // check if this Tracker's reset time has also surpassed
               long timeToReset = tc.nextResetDispatch - now;
-              if(timeToReset <= 0) {
-                dispatch(tc.id, Type.LOG_AND_RESET, tc.nextLogDispatch);
-              } else {
-                dispatch(tc.id, Type.LOG, tc.nextLogDispatch);
-              }
+              tick.add(tc.id, tc.nextLogDispatch, timeToReset <= 0);
               scheduleNextDispatch(tc);
             }
             if(tc.nextLogDispatch < nearestDispatch) {
               nearestDispatch = tc.nextLogDispatch;
             }
+            if(tc.nextSampleDispatch - now <= 0) {
+              if(tick == null) {
+                tick = new Tick();
+              }
+              tick.addSample(tc.id, tc.nextSampleDispatch);
+              final long nextSample = tc.sampleInterval.next(tc.nextSampleDispatch);
+              tc.nextSampleDispatch = nextSample == Interval.NEVER ? Long.MAX_VALUE : nextSample;
+            }
+            if(tc.nextSampleDispatch < nearestDispatch) {
+              nearestDispatch = tc.nextSampleDispatch;
+            }
           }
         }
+        // all due trackers are dispatched as a single event so they are logged against the same records
+        if(tick != null) {
+          dispatch(tick);
+        }
         // sleep until next dispatch
-        long sleep = nearestDispatch - System.currentTimeMillis();
-        trySleep(sleep);
+        trySleep(nearestDispatch, observedWakeups);
       }
     } finally {
       shutdownCompleteLatch.signal();
     }
   }
 
-  private void dispatch(TrackerId id, Type type, long timestamp) {
+  private void dispatch(Tick tick) {
     RecordEvent event = ringBuffer.claim();
-    event.setType(type);
-    event.setId(id);
-    event.setTimestamp(timestamp);
+    event.setType(Type.TICK);
+    event.setTick(tick);
     ringBuffer.commit(event);
   }
 
   public void add(TrackerId id, Interval logInterval, Interval resetInterval) {
+    add(id, logInterval, resetInterval, null);
+  }
+
+  public void add(TrackerId id, Interval logInterval, Interval resetInterval, Interval sampleInterval) {
     if(logInterval == null) {
       // null -> never log
       logInterval = Intervals.never();
@@ -105,22 +130,39 @@ public class LogScheduler implements AutoCloseable {
       // null -> never reset
       resetInterval = Intervals.never();
     }
-    TrackerContext tc = new TrackerContext(id, logInterval, resetInterval);
+    if(sampleInterval == null) {
+      // null -> never sample
+      sampleInterval = Intervals.never();
+    }
+    TrackerContext tc = new TrackerContext(id, logInterval, resetInterval, sampleInterval);
     scheduleFirstDispatch(tc);
     synchronized(trackers) {
       trackers.add(tc);
     }
+    wakeup();
+  }
+
+  private void wakeup() {
     synchronized(wakeup) {
+      wakeups++;
       wakeup.notifyAll();
     }
   }
 
+  private long wakeups() {
+    synchronized(wakeup) {
+      return wakeups;
+    }
+  }
+
   private void scheduleFirstDispatch(TrackerContext tc) {
-    final long now = System.currentTimeMillis();
+    final long now = clock.millis();
     long logDispatch = tc.logInterval.first(now);
     long resetDispatch = tc.resetInterval.first(now);
+    long sampleDispatch = tc.sampleInterval.first(now);
     tc.nextLogDispatch = logDispatch == Interval.NEVER ? Long.MAX_VALUE : logDispatch;
     tc.nextResetDispatch = resetDispatch == Interval.NEVER ? Long.MAX_VALUE : resetDispatch;
+    tc.nextSampleDispatch = sampleDispatch == Interval.NEVER ? Long.MAX_VALUE : sampleDispatch;
   }
 
   private void scheduleNextDispatch(TrackerContext tc) {
@@ -133,15 +175,20 @@ public class LogScheduler implements AutoCloseable {
     tc.nextLogDispatch = nextLog == Interval.NEVER ? Long.MAX_VALUE : nextLog;
   }
 
-  private void trySleep(long sleep) {
-    if(sleep > 0) {
-      try {
-        synchronized(wakeup) {
+  private void trySleep(long nearestDispatch, long observedWakeups) {
+    try {
+      synchronized(wakeup) {
+        // a clock change or new tracker since the schedule was computed would otherwise be missed until the sleep times out
+        if(wakeups != observedWakeups) {
+          return;
+        }
+        final long sleep = nearestDispatch - clock.millis();
+        if(sleep > 0) {
           wakeup.wait(sleep);
         }
-      } catch(InterruptedException e) {
-        return;
       }
+    } catch(InterruptedException e) {
+      return;
     }
   }
 
@@ -149,13 +196,16 @@ public class LogScheduler implements AutoCloseable {
     public final TrackerId id;
     public final Interval logInterval;
     public final Interval resetInterval;
+    public final Interval sampleInterval;
     public long nextLogDispatch;
     public long nextResetDispatch;
+    public long nextSampleDispatch;
 
-    public TrackerContext(TrackerId id, Interval logInterval, Interval resetInterval) {
+    public TrackerContext(TrackerId id, Interval logInterval, Interval resetInterval, Interval sampleInterval) {
       this.id = id;
       this.logInterval = logInterval;
       this.resetInterval = resetInterval;
+      this.sampleInterval = sampleInterval;
     }
   }
 }
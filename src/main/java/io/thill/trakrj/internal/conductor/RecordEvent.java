@@ -30,7 +30,9 @@ public class RecordEvent implements Record {
   private Tracker tracker;
   private Interval logInterval;
   private Interval resetInterval;
+  private Interval keepAliveInterval;
   private long timestamp;
+  private Tick tick;
 
   private long keyLong;
   private double keyDouble;
@@ -48,7 +50,11 @@ public class RecordEvent implements Record {
     type = null;
     id = null;
     tracker = null;
-    timestamp = 0;
+    logInterval = null;
+    resetInterval = null;
+    keepAliveInterval = null;
+    timestamp = NO_TIMESTAMP;
+    tick = null;
     keyLong = 0;
     keyDouble = Double.NaN;
     keyObject = null;
@@ -105,6 +111,15 @@ public class RecordEvent implements Record {
     this.resetInterval = resetInterval;
   }
 
+  public Interval getKeepAliveInterval() {
+    return keepAliveInterval;
+  }
+
+  public void setKeepAliveInterval(Interval keepAliveInterval) {
+    this.keepAliveInterval = keepAliveInterval;
+  }
+
+  @Override
   public long getTimestamp() {
     return timestamp;
   }
@@ -113,6 +128,14 @@ public class RecordEvent implements Record {
     this.timestamp = timestamp;
   }
 
+  public Tick getTick() {
+    return tick;
+  }
+
+  public void setTick(Tick tick) {
+    this.tick = tick;
+  }
+
   @Override
   public long getKeyLong() {
     return keyLong;
@@ -168,7 +191,7 @@ public class RecordEvent implements Record {
   }
 
   public enum Type {
-    ADD_TRACKER, LOG, LOG_AND_RESET, RECORD, RESET;
+    ADD_TRACKER, TICK, RECORD, RESET;
   }
 
   @Override
@@ -179,6 +202,9 @@ public class RecordEvent implements Record {
             ", tracker=" + tracker +
             ", logInterval=" + logInterval +
             ", resetInterval=" + resetInterval +
+            ", keepAliveInterval=" + keepAliveInterval +
+            ", timestamp=" + timestamp +
+            ", tick=" + tick +
             ", keyLong=" + keyLong +
             ", keyDouble=" + keyDouble +
             ", keyObject=" + keyObject +
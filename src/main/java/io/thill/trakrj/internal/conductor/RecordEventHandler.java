@@ -11,7 +11,10 @@
  */
 package io.thill.trakrj.internal.conductor;
 
+import io.thill.trakrj.Interval;
 import io.thill.trakrj.Tracker;
+import io.thill.trakrj.TrackerId;
+import io.thill.trakrj.clock.Clock;
 import io.thill.trakrj.internal.exception.Exceptions;
 import io.thill.trakrj.internal.thread.SignalLatch;
 import io.thill.trakrj.logger.StatLogger;
@@ -29,7 +32,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class RecordEventHandler implements AutoCloseable {
 
   private final AtomicInteger missedEvents = new AtomicInteger();
-  private final MutableIntObjectMap<Tracker> trackers = IntObjectMaps.mutable.empty();
+  private final MutableIntObjectMap<TrackerState> trackers = IntObjectMaps.mutable.empty();
   private final AtomicBoolean keepRunning = new AtomicBoolean(true);
   private final SignalLatch shutdownCompleteLatch = new SignalLatch();
   private final RecordEventRingBuffer ringBuffer;
@@ -37,10 +40,10 @@ public class RecordEventHandler implements AutoCloseable {
   private final LogScheduler scheduler;
   private final Thread thread;
 
-  public RecordEventHandler(RecordEventRingBuffer ringBuffer, StatLogger statLogger) {
+  public RecordEventHandler(RecordEventRingBuffer ringBuffer, StatLogger statLogger, Clock clock) {
     this.ringBuffer = ringBuffer;
     this.statLogger = statLogger;
-    this.scheduler = new LogScheduler(ringBuffer);
+    this.scheduler = new LogScheduler(ringBuffer, clock);
     this.thread = new Thread(this::runLoop, "TrakrJ-Conductor");
   }
 
@@ -83,11 +86,8 @@ public class RecordEventHandler implements AutoCloseable {
         case RECORD:
           handleRecord(event);
           break;
-        case LOG:
-          handleLog(event);
-          break;
-        case LOG_AND_RESET:
-          handleLogAndReset(event);
+        case TICK:
+          handleTick(event);
           break;
         case RESET:
           handleReset(event);
@@ -104,32 +104,78 @@ public class RecordEventHandler implements AutoCloseable {
   }
 
   private void handleRecord(RecordEvent event) {
-    Tracker tracker = trackers.get(event.getId().uid());
-    if(tracker != null)
-      tracker.record(event);
-  }
-
-  private void handleLog(RecordEvent event) {
-    logMissedEvents();
-    Tracker tracker = trackers.get(event.getId().uid());
-    if(tracker != null) {
-      statLogger.log(event.getId(), tracker, event.getTimestamp());
+    TrackerState state = trackers.get(event.getId().uid());
+    if(state != null) {
+      state.touched = true;
+      state.dirty = true;
+      state.tracker.record(event);
     }
   }
 
-  private void handleLogAndReset(RecordEvent event) {
+  private void handleTick(RecordEvent event) {
     logMissedEvents();
-    Tracker tracker = trackers.get(event.getId().uid());
-    if(tracker != null) {
-      statLogger.log(event.getId(), tracker, event.getTimestamp());
-      tracker.reset();
+    final Tick tick = event.getTick();
+    for(int i = 0; i < tick.sampleSize(); i++) {
+      final TrackerId id = tick.sampleId(i);
+      final TrackerState state = trackers.get(id.uid());
+      if(state != null) {
+        try {
+          state.tracker.sample(tick.sampleTimestamp(i));
+        } catch(Throwable t) {
+          Exceptions.logError("Error sampling " + id.display(), t);
+        }
+      }
+    }
+    for(int i = 0; i < tick.size(); i++) {
+      final TrackerId id = tick.id(i);
+      final TrackerState state = trackers.get(id.uid());
+      if(state != null) {
+        try {
+          state.tracker.tick(tick.timestamp(i));
+        } catch(Throwable t) {
+          Exceptions.logError("Error ticking " + id.display(), t);
+        }
+      }
+    }
+    // log every due tracker before resetting any of them, so the whole tick reflects the same applied records
+    for(int i = 0; i < tick.size(); i++) {
+      final TrackerId id = tick.id(i);
+      final TrackerState state = trackers.get(id.uid());
+      if(state != null && state.shouldLog(tick.timestamp(i))) {
+        try {
+          statLogger.log(id, state.tracker, tick.timestamp(i));
+        } catch(Throwable t) {
+          Exceptions.logError("Error logging " + id.display(), t);
+        }
+      }
+    }
+    for(int i = 0; i < tick.size(); i++) {
+      if(tick.reset(i)) {
+        final TrackerId id = tick.id(i);
+        final TrackerState state = trackers.get(id.uid());
+        if(state != null) {
+          // a scheduled reset changes the logged state when anything changed since the previous reset, so the cleared state is logged once
+          if(state.dirty) {
+            state.touched = true;
+            state.dirty = false;
+          }
+          try {
+            state.tracker.reset();
+          } catch(Throwable t) {
+            Exceptions.logError("Error resetting " + id.display(), t);
+          }
+        }
+      }
     }
   }
 
   private void handleReset(RecordEvent event) {
-    Tracker tracker = trackers.get(event.getId().uid());
-    if(tracker != null) {
-      tracker.reset();
+    TrackerState state = trackers.get(event.getId().uid());
+    if(state != null) {
+      // an on-demand reset changes the logged state, so treat it as a touch
+      state.touched = true;
+      state.dirty = false;
+      state.tracker.resetOnDemand();
     }
   }
 
@@ -144,8 +190,43 @@ public class RecordEventHandler implements AutoCloseable {
     if(trackers.containsKey(event.getId().uid())) {
       Exceptions.logError("Multiple trackers registered with uid=" + event.getId().uid());
     }
-    trackers.put(event.getId().uid(), event.getTracker());
-    scheduler.add(event.getId(), event.getLogInterval(), event.getResetInterval());
+    trackers.put(event.getId().uid(), new TrackerState(event.getTracker(), event.getKeepAliveInterval()));
+    scheduler.add(event.getId(), event.getLogInterval(), event.getResetInterval(), event.getTracker().sampleInterval());
+  }
+
+  private static class TrackerState {
+    public final Tracker tracker;
+    public final Interval keepAliveInterval;
+    public boolean touched = true;
+    public boolean dirty;
+    public long nextKeepAlive = Long.MIN_VALUE;
+
+    public TrackerState(Tracker tracker, Interval keepAliveInterval) {
+      this.tracker = tracker;
+      this.keepAliveInterval = keepAliveInterval;
+    }
+
+    /**
+     * Trackers without a keep-alive interval are always logged. Trackers with a keep-alive interval are only logged when they were touched or report a change
+     * since their last log, or when their keep-alive is due.
+     */
+    public boolean shouldLog(long timestamp) {
+      if(keepAliveInterval == null) {
+        return true;
+      }
+      // always ask the tracker, so trackers comparing against the previous tick see every tick
+      final boolean changed = tracker.changedSinceLastLog();
+      if(changed) {
+        dirty = true;
+      }
+      if(!touched && !changed && timestamp < nextKeepAlive) {
+        return false;
+      }
+      touched = false;
+      final long next = keepAliveInterval.next(timestamp);
+      nextKeepAlive = next == Interval.NEVER ? Long.MAX_VALUE : next;
+      return true;
+    }
   }
 
 }
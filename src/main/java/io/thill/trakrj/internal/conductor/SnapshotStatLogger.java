@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.internal.conductor;
+
+import io.thill.trakrj.Tracker;
+import io.thill.trakrj.TrackerId;
+import io.thill.trakrj.internal.exception.Exceptions;
+import io.thill.trakrj.internal.thread.SignalLatch;
+import io.thill.trakrj.logger.StatLogger;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Internal class. Public methods may change or be removed without warning.
+ * <p>
+ * A {@link StatLogger} that captures a {@link TrackerSnapshot} of each tracker on the calling thread and logs it to the underlying {@link StatLogger} from a
+ * separate logging thread. Snapshots are taken from a bounded pool. When the pool is exhausted, the log is dropped and the number of dropped logs will be
+ * reported during the next log event.
+ *
+ * @author Eric Thill
+ */
+public class SnapshotStatLogger implements StatLogger {
+
+  private final AtomicBoolean keepRunning = new AtomicBoolean(true);
+  private final SignalLatch shutdownCompleteLatch = new SignalLatch();
+  private final BlockingQueue<TrackerSnapshot> pool;
+  private final BlockingQueue<TrackerSnapshot> pending;
+  private final StatLogger underlying;
+  private final Thread thread;
+  private int missedLogs;
+
+  public SnapshotStatLogger(StatLogger underlying, int poolSize) {
+    this.underlying = underlying;
+    this.pool = new ArrayBlockingQueue<>(poolSize);
+    this.pending = new ArrayBlockingQueue<>(poolSize);
+    for(int i = 0; i < poolSize; i++) {
+      pool.add(new TrackerSnapshot());
+    }
+    this.thread = new Thread(this::runLoop, "TrakrJ-Logger");
+    this.thread.setDaemon(true);
+  }
+
+  public void start() {
+    thread.start();
+  }
+
+  @Override
+  public void configure(Map<String, String> config) {
+    // underlying logger is expected to already be configured
+  }
+
+  @Override
+  public void log(TrackerId id, Tracker tracker, long timestamp) {
+    final TrackerSnapshot snapshot = pool.poll();
+    if(snapshot == null) {
+      missedLogs++;
+      return;
+    }
+    if(missedLogs > 0) {
+      Exceptions.logWarn("Missed " + missedLogs + " logs due to exhausted snapshot pool");
+      missedLogs = 0;
+    }
+    try {
+      snapshot.capture(id, tracker, timestamp);
+    } catch(Throwable t) {
+      snapshot.clear();
+      pool.add(snapshot);
+      throw t;
+    }
+    pending.add(snapshot);
+  }
+
+  private void runLoop() {
+    try {
+      while(keepRunning.get()) {
+        handle(pending.take());
+      }
+    } catch(InterruptedException e) {
+      // closing
+    } finally {
+      // flush snapshots that were captured before close
+      TrackerSnapshot snapshot;
+      while((snapshot = pending.poll()) != null) {
+        handle(snapshot);
+      }
+      shutdownCompleteLatch.signal();
+    }
+  }
+
+  private void handle(TrackerSnapshot snapshot) {
+    try {
+      underlying.log(snapshot.getId(), snapshot, snapshot.getTimestamp());
+    } catch(Throwable t) {
+      Exceptions.logError("Error logging " + snapshot.getId().display(), t);
+    } finally {
+      snapshot.clear();
+      pool.add(snapshot);
+    }
+  }
+
+  @Override
+  public void close() {
+    keepRunning.set(false);
+    thread.interrupt();
+    shutdownCompleteLatch.await();
+    underlying.close();
+  }
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.internal.conductor;
+
+import io.thill.trakrj.TrackerId;
+
+import java.util.Arrays;
+
+/**
+ * Internal class. Public methods may change or be removed without warning.
+ * <p>
+ * All trackers that are due to be logged at a single pass of the {@link LogScheduler}. A tick is dispatched to the conductor as a single {@link RecordEvent},
+ * so every tracker in the tick is logged against the same set of applied records.
+ *
+ * @author Eric Thill
+ */
+public class Tick {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private TrackerId[] ids = new TrackerId[INITIAL_CAPACITY];
+  private long[] timestamps = new long[INITIAL_CAPACITY];
+  private boolean[] resets = new boolean[INITIAL_CAPACITY];
+  private int size;
+  private TrackerId[] sampleIds = new TrackerId[INITIAL_CAPACITY];
+  private long[] sampleTimestamps = new long[INITIAL_CAPACITY];
+  private int sampleSize;
+
+  public void add(TrackerId id, long timestamp, boolean reset) {
+    if(size == ids.length) {
+      final int capacity = ids.length * 2;
+      ids = Arrays.copyOf(ids, capacity);
+      timestamps = Arrays.copyOf(timestamps, capacity);
+      resets = Arrays.copyOf(resets, capacity);
+    }
+    ids[size] = id;
+    timestamps[size] = timestamp;
+    resets[size] = reset;
+    size++;
+  }
+
+  public void addSample(TrackerId id, long timestamp) {
+    if(sampleSize == sampleIds.length) {
+      final int capacity = sampleIds.length * 2;
+      sampleIds = Arrays.copyOf(sampleIds, capacity);
+      sampleTimestamps = Arrays.copyOf(sampleTimestamps, capacity);
+    }
+    sampleIds[sampleSize] = id;
+    sampleTimestamps[sampleSize] = timestamp;
+    sampleSize++;
+  }
+
+  public boolean isEmpty() {
+    return size == 0 && sampleSize == 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public TrackerId id(int index) {
+    return ids[index];
+  }
+
+  public long timestamp(int index) {
+    return timestamps[index];
+  }
+
+  public boolean reset(int index) {
+    return resets[index];
+  }
+
+  public int sampleSize() {
+    return sampleSize;
+  }
+
+  public TrackerId sampleId(int index) {
+    return sampleIds[index];
+  }
+
+  public long sampleTimestamp(int index) {
+    return sampleTimestamps[index];
+  }
+
+  @Override
+  public String toString() {
+    return "Tick{" +
+            "size=" + size +
+            ", sampleSize=" + sampleSize +
+            '}';
+  }
+}
@@ -0,0 +1,247 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.internal.conductor;
+
+import io.thill.trakrj.Record;
+import io.thill.trakrj.Stat;
+import io.thill.trakrj.Stat.StatKind;
+import io.thill.trakrj.Stat.StatType;
+import io.thill.trakrj.StatVisitor;
+import io.thill.trakrj.Tracker;
+import io.thill.trakrj.TrackerId;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Internal class. Public methods may change or be removed without warning.
+ * <p>
+ * An immutable, reusable copy of a {@link Tracker}'s rendered state, captured on the conductor thread and handed off to be logged by another thread. Stats are
+ * captured through {@link Tracker#visit(StatVisitor)} into pooled stats, so capturing and visiting a snapshot does not allocate once the pool is warm. The
+ * tracker's {@link Tracker#toString()} is not called during capture. Instead, {@link #toString()} renders the captured stats as "name=value" pairs on the
+ * thread that logs the snapshot, so text rendering is kept off of the conductor thread.
+ *
+ * @author Eric Thill
+ */
+public class TrackerSnapshot implements Tracker {
+
+  private final List<SnapshotStat> pool = new ArrayList<>();
+  private final List<SnapshotStat> stats = new ArrayList<>();
+  private final List<Stat> statsUnmodifiable = Collections.unmodifiableList(stats);
+  private final StatVisitor captureVisitor = new CaptureVisitor();
+  private TrackerId id;
+  private long timestamp;
+  private String text;
+
+  public void capture(TrackerId id, Tracker tracker, long timestamp) {
+    this.id = id;
+    this.timestamp = timestamp;
+    tracker.visit(captureVisitor);
+  }
+
+  private SnapshotStat next() {
+    final int i = stats.size();
+    if(i == pool.size()) {
+      pool.add(new SnapshotStat());
+    }
+    final SnapshotStat stat = pool.get(i);
+    stats.add(stat);
+    return stat;
+  }
+
+  public void clear() {
+    for(int i = 0; i < stats.size(); i++) {
+      stats.get(i).clear();
+    }
+    stats.clear();
+    id = null;
+    timestamp = 0;
+    text = null;
+  }
+
+  public TrackerId getId() {
+    return id;
+  }
+
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  @Override
+  public void record(Record record) {
+    throw new UnsupportedOperationException("Cannot record to a snapshot");
+  }
+
+  @Override
+  public void reset() {
+    throw new UnsupportedOperationException("Cannot reset a snapshot");
+  }
+
+  @Override
+  public List<Stat> stats() {
+    return statsUnmodifiable;
+  }
+
+  @Override
+  public void visit(StatVisitor visitor) {
+    for(int i = 0; i < stats.size(); i++) {
+      stats.get(i).visit(visitor);
+    }
+  }
+
+  @Override
+  public String toString() {
+    if(text == null) {
+      final StringBuilder sb = new StringBuilder();
+      for(int i = 0; i < stats.size(); i++) {
+        if(i > 0) {
+          sb.append(" ");
+        }
+        sb.append(stats.get(i));
+      }
+      text = sb.toString();
+    }
+    return text;
+  }
+
+  private class CaptureVisitor implements StatVisitor {
+    @Override
+    public void visitLong(CharSequence name, long value) {
+      next().set(name, StatType.LONG, StatKind.GAUGE, false).longValue = value;
+    }
+
+    @Override
+    public void visitCounter(CharSequence name, long value, StatKind kind) {
+      next().set(name, StatType.LONG, kind, false).longValue = value;
+    }
+
+    @Override
+    public void visitDouble(CharSequence name, double value) {
+      next().set(name, StatType.DOUBLE, StatKind.GAUGE, false).doubleValue = value;
+    }
+
+    @Override
+    public void visitObject(CharSequence name, Object value) {
+      next().set(name, StatType.OBJECT, StatKind.GAUGE, value == null).objectValue = value;
+    }
+
+    @Override
+    public void visitNull(CharSequence name, StatType type) {
+      next().set(name, type, StatKind.GAUGE, true);
+    }
+  }
+
+  private static class SnapshotStat implements Stat {
+    private final StringBuilder name = new StringBuilder();
+    private String nameString;
+    private StatType type;
+    private StatKind kind;
+    private boolean nil;
+    private long longValue;
+    private double doubleValue;
+    private Object objectValue;
+
+    private SnapshotStat set(CharSequence name, StatType type, StatKind kind, boolean nil) {
+      this.name.setLength(0);
+      this.name.append(name);
+      this.type = type;
+      this.kind = kind;
+      this.nil = nil;
+      return this;
+    }
+
+    private void visit(StatVisitor visitor) {
+      if(nil) {
+        visitor.visitNull(name, type);
+        return;
+      }
+      switch(type) {
+        case LONG:
+          if(kind == StatKind.GAUGE) {
+            visitor.visitLong(name, longValue);
+          } else {
+            visitor.visitCounter(name, longValue, kind);
+          }
+          break;
+        case DOUBLE:
+          visitor.visitDouble(name, doubleValue);
+          break;
+        case OBJECT:
+          visitor.visitObject(name, objectValue);
+          break;
+      }
+    }
+
+    private void clear() {
+      name.setLength(0);
+      nameString = null;
+      type = null;
+      kind = null;
+      nil = true;
+      objectValue = null;
+    }
+
+    @Override
+    public String name() {
+      if(nameString == null) {
+        nameString = name.toString();
+      }
+      return nameString;
+    }
+
+    @Override
+    public boolean isNull() {
+      return nil;
+    }
+
+    @Override
+    public long longValue() {
+      return longValue;
+    }
+
+    @Override
+    public double doubleValue() {
+      return doubleValue;
+    }
+
+    @Override
+    public Object objectValue() {
+      return objectValue;
+    }
+
+    @Override
+    public StatType type() {
+      return type;
+    }
+
+    @Override
+    public StatKind kind() {
+      return kind;
+    }
+
+    @Override
+    public String toString() {
+      if(nil) {
+        return name + "=null";
+      }
+      switch(type) {
+        case LONG:
+          return name + "=" + longValue;
+        case DOUBLE:
+          return name + "=" + doubleValue;
+        default:
+          return name + "=" + objectValue;
+      }
+    }
+  }
+}
@@ -51,11 +51,15 @@ public class Config {
   public static final String CONDUCTOR_IMPL_DEFAULT = "default";
   public static final String CONDUCTOR_IMPL_DISABLED = "disabled";
 
+  public static final String CLOCK_IMPL_SYSTEM = "system";
+  public static final String CLOCK_IMPL_CACHED = "cached";
+
   public static final String LOGGER_IMPL_SLF4J = "slf4j";
   public static final String LOGGER_IMPL_STDOUT = "stdout";
   public static final String LOGGER_IMPL_STDERR = "stderr";
   public static final String LOGGER_IMPL_MULTI = "multi";
   public static final String LOGGER_IMPL_STATSD = "statsd";
+  public static final String LOGGER_IMPL_RETENTION = "retention";
 
   public static final String CFGKEY_LOGGER_NAME = "name";
   public static final String DEFAULT_LOGGER_NAME = "TrakrJ";
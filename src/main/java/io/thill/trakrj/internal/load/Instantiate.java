@@ -11,6 +11,9 @@
  */
 package io.thill.trakrj.internal.load;
 
+import io.thill.trakrj.clock.CachedClock;
+import io.thill.trakrj.clock.Clock;
+import io.thill.trakrj.clock.SystemClock;
 import io.thill.trakrj.conductor.Conductor;
 import io.thill.trakrj.logger.*;
 
@@ -55,6 +58,22 @@ public class Instantiate {
     }
   }
 
+  public static Clock instantiateClock(String clockClass) throws ClassNotFoundException, InstantiationException, IllegalAccessException {
+    clockClass = mapClockClass(clockClass);
+    return (Clock)Class.forName(clockClass).newInstance();
+  }
+
+  private static String mapClockClass(String clockClass) {
+    switch(clockClass) {
+      case CLOCK_IMPL_SYSTEM:
+        return SystemClock.class.getName();
+      case CLOCK_IMPL_CACHED:
+        return CachedClock.class.getName();
+      default:
+        return clockClass;
+    }
+  }
+
   public static StatLogger instantiateLoggerFromSysConfig(Map<String, String> sysConfig) throws ClassNotFoundException, InstantiationException, IllegalAccessException {
     Map<String, String> loggerConfig = Config.subConfig(sysConfig, CFGPREFIX_LOGGER, Collections.emptyList());
     return instantiateLogger(loggerConfig);
@@ -80,6 +99,8 @@ public class Instantiate {
         return MultiStatLogger.class.getName();
       case LOGGER_IMPL_STATSD:
         return StatsDStatLogger.class.getName();
+      case LOGGER_IMPL_RETENTION:
+        return RetentionStatLogger.class.getName();
       default:
         return loggerClass;
     }
@@ -0,0 +1,232 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.internal.retention;
+
+import io.thill.trakrj.function.LongDoubleConsumer;
+
+/**
+ * Internal class. Public methods may change or be removed without warning.
+ * <p>
+ * A fixed-size block of timestamp:value points compressed as described in the Gorilla paper (Pelkonen et al). Timestamps are encoded as the delta of the
+ * delta from the previous point, which is a single bit for points at a regular interval. Values are encoded as the XOR with the previous value, storing only
+ * the bits between the leading and trailing zeros, which is a single bit for an unchanged value. Points must be appended in timestamp order. A block can be
+ * reset and reused.
+ *
+ * @author Eric Thill
+ */
+class GorillaBlock {
+
+  // worst case bits to encode one point: 4+64 for the timestamp and 2+5+6+64 for the value
+  private static final int MAX_POINT_BITS = 145;
+
+  private final long[] words;
+  private int bitLength;
+  private int count;
+  private long firstTimestamp;
+  private long lastTimestamp;
+
+  // encoder state
+  private long prevDelta;
+  private long prevValueBits;
+  private int prevLeading;
+  private int prevTrailing;
+
+  GorillaBlock(int sizeBytes) {
+    this.words = new long[Math.max(4, sizeBytes / 8)];
+  }
+
+  void reset() {
+    for(int i = 0; i < words.length; i++) {
+      words[i] = 0;
+    }
+    bitLength = 0;
+    count = 0;
+    firstTimestamp = 0;
+    lastTimestamp = 0;
+  }
+
+  /**
+   * Append a point to this block
+   *
+   * @return true if the point was appended, false if the block is full
+   */
+  boolean append(long timestamp, double value) {
+    if(words.length * 64 - bitLength < MAX_POINT_BITS) {
+      return false;
+    }
+    final long valueBits = Double.doubleToRawLongBits(value);
+    if(count == 0) {
+      write(timestamp, 64);
+      write(valueBits, 64);
+      firstTimestamp = timestamp;
+      prevDelta = 0;
+      prevLeading = Integer.MAX_VALUE;
+      prevTrailing = 0;
+    } else {
+      final long delta = timestamp - lastTimestamp;
+      writeDeltaOfDelta(delta - prevDelta);
+      writeXor(valueBits ^ prevValueBits);
+      prevDelta = delta;
+    }
+    lastTimestamp = timestamp;
+    prevValueBits = valueBits;
+    count++;
+    return true;
+  }
+
+  private void writeDeltaOfDelta(long dod) {
+    if(dod == 0) {
+      write(0b0, 1);
+    } else if(dod >= -64 && dod <= 63) {
+      write(0b10, 2);
+      write(dod, 7);
+    } else if(dod >= -256 && dod <= 255) {
+      write(0b110, 3);
+      write(dod, 9);
+    } else if(dod >= -2048 && dod <= 2047) {
+      write(0b1110, 4);
+      write(dod, 12);
+    } else {
+      write(0b1111, 4);
+      write(dod, 64);
+    }
+  }
+
+  private void writeXor(long xor) {
+    if(xor == 0) {
+      write(0b0, 1);
+      return;
+    }
+    // leading zeros are stored in 5 bits
+    final int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+    final int trailing = Long.numberOfTrailingZeros(xor);
+    if(leading >= prevLeading && trailing >= prevTrailing) {
+      // meaningful bits fit in the previous window
+      write(0b10, 2);
+      write(xor >>> prevTrailing, 64 - prevLeading - prevTrailing);
+    } else {
+      final int meaningful = 64 - leading - trailing;
+      write(0b11, 2);
+      write(leading, 5);
+      // 64 meaningful bits are stored as 0
+      write(meaningful, 6);
+      write(xor >>> trailing, meaningful);
+      prevLeading = leading;
+      prevTrailing = trailing;
+    }
+  }
+
+  private void write(long value, int bits) {
+    final int index = bitLength >>> 6;
+    final int free = 64 - (bitLength & 63);
+    final long v = bits == 64 ? value : value & ((1L << bits) - 1);
+    if(bits <= free) {
+      words[index] |= v << (free - bits);
+    } else {
+      final int remaining = bits - free;
+      words[index] |= v >>> remaining;
+      words[index + 1] |= v << (64 - remaining);
+    }
+    bitLength += bits;
+  }
+
+  int count() {
+    return count;
+  }
+
+  long firstTimestamp() {
+    return firstTimestamp;
+  }
+
+  long lastTimestamp() {
+    return lastTimestamp;
+  }
+
+  int sizeBits() {
+    return bitLength;
+  }
+
+  /**
+   * Decode every point with a timestamp in the given inclusive range
+   */
+  void forEach(long fromTimestamp, long toTimestamp, LongDoubleConsumer consumer) {
+    if(count == 0 || lastTimestamp < fromTimestamp || firstTimestamp > toTimestamp) {
+      return;
+    }
+    final Reader reader = new Reader();
+    long timestamp = reader.read(64);
+    long valueBits = reader.read(64);
+    long delta = 0;
+    int leading = 0;
+    int trailing = 0;
+    for(int i = 0; ; ) {
+      if(timestamp > toTimestamp) {
+        return;
+      }
+      if(timestamp >= fromTimestamp) {
+        consumer.accept(timestamp, Double.longBitsToDouble(valueBits));
+      }
+      if(++i == count) {
+        return;
+      }
+      // timestamp
+      final long dod;
+      if(reader.read(1) == 0) {
+        dod = 0;
+      } else if(reader.read(1) == 0) {
+        dod = signExtend(reader.read(7), 7);
+      } else if(reader.read(1) == 0) {
+        dod = signExtend(reader.read(9), 9);
+      } else if(reader.read(1) == 0) {
+        dod = signExtend(reader.read(12), 12);
+      } else {
+        dod = reader.read(64);
+      }
+      delta += dod;
+      timestamp += delta;
+      // value
+      if(reader.read(1) == 1) {
+        if(reader.read(1) == 1) {
+          leading = (int)reader.read(5);
+          int meaningful = (int)reader.read(6);
+          if(meaningful == 0) {
+            meaningful = 64;
+          }
+          trailing = 64 - leading - meaningful;
+        }
+        valueBits ^= reader.read(64 - leading - trailing) << trailing;
+      }
+    }
+  }
+
+  private static long signExtend(long value, int bits) {
+    return (value << (64 - bits)) >> (64 - bits);
+  }
+
+  private class Reader {
+    private int position;
+
+    private long read(int bits) {
+      final int index = position >>> 6;
+      final int free = 64 - (position & 63);
+      long result;
+      if(bits <= free) {
+        result = words[index] >>> (free - bits);
+      } else {
+        final int remaining = bits - free;
+        result = (words[index] << remaining) | (words[index + 1] >>> (64 - remaining));
+      }
+      position += bits;
+      return bits == 64 ? result : result & ((1L << bits) - 1);
+    }
+  }
+}
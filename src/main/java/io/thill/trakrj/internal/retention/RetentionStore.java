@@ -0,0 +1,366 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.internal.retention;
+
+import io.thill.trakrj.Stat.StatKind;
+import io.thill.trakrj.function.LongDoubleConsumer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Internal class. Public methods may change or be removed without warning.
+ * <p>
+ * An in-memory store of the numeric stats of logged trackers. Every stat is kept in each of the configured {@link RetentionTier}s as compressed
+ * {@link GorillaBlock}s, so memory is bounded by the retention of each tier rather than by uptime. Stats that have not been logged for longer than the longest
+ * retention are dropped, and each tracker keeps at most maxStats stats. Trackers that stop logging are swept periodically as later trackers are logged, and
+ * are dropped once none of their stats are retained.
+ * <p>
+ * A tracker's stats are appended by calling {@link #begin(String, long)}, {@link #append(CharSequence, double, StatKind)} for each stat, then {@link #end()},
+ * from a single thread. The kind of a stat decides how its points are combined by downsampled tiers: gauges are averaged, deltas are summed, and counters keep
+ * their last value. Queries may be run concurrently from any thread. Points are copied out while holding the store's lock and given to the query's consumer
+ * after the lock is released, so a slow consumer never blocks logging.
+ *
+ * @author Eric Thill
+ */
+public class RetentionStore {
+
+  public static final int DEFAULT_BLOCK_SIZE = 512;
+  public static final int DEFAULT_MAX_STATS = 1024;
+  private static final int SWEEPS_PER_RETENTION = 64;
+
+  private final RetentionTier[] tiers;
+  private final int blockSize;
+  private final int maxStats;
+  private final long maxRetention;
+  private final long sweepInterval;
+  private final Map<String, TrackerSeries> trackers = new HashMap<>();
+  private TrackerSeries current;
+  private long currentTimestamp;
+  private long latestTimestamp = Long.MIN_VALUE;
+  private long nextSweepTimestamp = Long.MIN_VALUE;
+
+  public RetentionStore(List<RetentionTier> tiers) {
+    this(tiers, DEFAULT_BLOCK_SIZE, DEFAULT_MAX_STATS);
+  }
+
+  /**
+   * @param tiers     The tiers, from the finest resolution to the coarsest
+   * @param blockSize The size of each compressed block in bytes
+   * @param maxStats  The max number of stats to keep per tracker
+   */
+  public RetentionStore(List<RetentionTier> tiers, int blockSize, int maxStats) {
+    if(tiers.isEmpty()) {
+      throw new IllegalArgumentException("At least one tier is required");
+    }
+    this.tiers = tiers.toArray(new RetentionTier[tiers.size()]);
+    this.blockSize = blockSize;
+    this.maxStats = maxStats;
+    long maxRetention = 0;
+    for(RetentionTier tier : tiers) {
+      maxRetention = Math.max(maxRetention, tier.getRetentionMillis());
+    }
+    this.maxRetention = maxRetention;
+    this.sweepInterval = Math.max(1, maxRetention / SWEEPS_PER_RETENTION);
+  }
+
+  public List<RetentionTier> getTiers() {
+    return Collections.unmodifiableList(Arrays.asList(tiers));
+  }
+
+  /**
+   * Begin appending the stats of a tracker logged at the given timestamp
+   *
+   * @param tracker   The tracker's display name
+   * @param timestamp The log timestamp
+   */
+  public synchronized void begin(String tracker, long timestamp) {
+    current = trackers.get(tracker);
+    if(current == null) {
+      current = new TrackerSeries();
+      trackers.put(tracker, current);
+    }
+    current.cursor = 0;
+    currentTimestamp = timestamp;
+    latestTimestamp = Math.max(latestTimestamp, timestamp);
+  }
+
+  /**
+   * Append the value of one gauge stat of the tracker given to {@link #begin(String, long)}
+   *
+   * @param stat  The stat name
+   * @param value The stat value
+   */
+  public void append(CharSequence stat, double value) {
+    append(stat, value, StatKind.GAUGE);
+  }
+
+  /**
+   * Append the value of one stat of the tracker given to {@link #begin(String, long)}
+   *
+   * @param stat  The stat name
+   * @param value The stat value
+   * @param kind  The stat kind, which is fixed by the first value appended for the stat
+   */
+  public synchronized void append(CharSequence stat, double value, StatKind kind) {
+    if(current == null) {
+      return;
+    }
+    final StatSeries series = current.find(stat, kind);
+    if(series != null) {
+      for(int i = 0; i < series.tiers.length; i++) {
+        series.tiers[i].add(currentTimestamp, value);
+      }
+      series.lastTimestamp = currentTimestamp;
+    }
+  }
+
+  /**
+   * Finish appending the stats of the current tracker, dropping its stats that have not been logged within the longest retention. Trackers that are no longer
+   * logged are also swept here, at most 64 times per longest retention.
+   */
+  public synchronized void end() {
+    if(current == null) {
+      return;
+    }
+    current.expire(currentTimestamp - maxRetention);
+    current = null;
+    if(latestTimestamp >= nextSweepTimestamp) {
+      nextSweepTimestamp = latestTimestamp + sweepInterval;
+      final long expiry = latestTimestamp - maxRetention;
+      final Iterator<TrackerSeries> it = trackers.values().iterator();
+      while(it.hasNext()) {
+        if(it.next().expire(expiry)) {
+          it.remove();
+        }
+      }
+    }
+  }
+
+  /**
+   * Get the display names of all trackers in the store
+   *
+   * @return The tracker names
+   */
+  public synchronized Set<String> trackers() {
+    return new LinkedHashSet<>(trackers.keySet());
+  }
+
+  /**
+   * Get the names of all stats of a tracker in the store
+   *
+   * @param tracker The tracker's display name
+   * @return The stat names, empty if the tracker is not in the store
+   */
+  public synchronized List<String> stats(String tracker) {
+    final TrackerSeries series = trackers.get(tracker);
+    final List<String> names = new ArrayList<>();
+    if(series != null) {
+      for(StatSeries s : series.stats) {
+        names.add(s.name);
+      }
+    }
+    return names;
+  }
+
+  /**
+   * Query the points of a stat within a time range from the finest tier whose retention covers the start of the range
+   *
+   * @param tracker       The tracker's display name
+   * @param stat          The stat name
+   * @param fromTimestamp The inclusive start of the range
+   * @param toTimestamp   The inclusive end of the range
+   * @param consumer      The consumer of every timestamp:value point in the range, in timestamp order
+   * @return The resolution of the queried tier in milliseconds, 0 for tick resolution, or -1 if the stat is not in the store
+   */
+  public long query(String tracker, String stat, long fromTimestamp, long toTimestamp, LongDoubleConsumer consumer) {
+    final PointBuffer points = new PointBuffer();
+    final long resolution;
+    synchronized(this) {
+      int tier = tiers.length - 1;
+      for(int i = 0; i < tiers.length; i++) {
+        if(fromTimestamp >= latestTimestamp - tiers[i].getRetentionMillis()) {
+          tier = i;
+          break;
+        }
+      }
+      resolution = collect(tracker, stat, tier, fromTimestamp, toTimestamp, points);
+    }
+    points.forEach(consumer);
+    return resolution;
+  }
+
+  /**
+   * Query the points of a stat within a time range from the finest tier with at least the given resolution
+   *
+   * @param tracker          The tracker's display name
+   * @param stat             The stat name
+   * @param resolutionMillis The minimum resolution in milliseconds
+   * @param fromTimestamp    The inclusive start of the range
+   * @param toTimestamp      The inclusive end of the range
+   * @param consumer         The consumer of every timestamp:value point in the range, in timestamp order
+   * @return The resolution of the queried tier in milliseconds, 0 for tick resolution, or -1 if the stat is not in the store
+   */
+  public long query(String tracker, String stat, long resolutionMillis, long fromTimestamp, long toTimestamp, LongDoubleConsumer consumer) {
+    final PointBuffer points = new PointBuffer();
+    final long resolution;
+    synchronized(this) {
+      int tier = tiers.length - 1;
+      for(int i = 0; i < tiers.length; i++) {
+        if(tiers[i].getResolutionMillis() >= resolutionMillis) {
+          tier = i;
+          break;
+        }
+      }
+      resolution = collect(tracker, stat, tier, fromTimestamp, toTimestamp, points);
+    }
+    points.forEach(consumer);
+    return resolution;
+  }
+
+  private long collect(String tracker, String stat, int tier, long fromTimestamp, long toTimestamp, PointBuffer points) {
+    final TrackerSeries trackerSeries = trackers.get(tracker);
+    final StatSeries series = trackerSeries == null ? null : trackerSeries.get(stat);
+    if(series == null) {
+      return -1;
+    }
+    series.tiers[tier].forEach(fromTimestamp, toTimestamp, points);
+    return tiers[tier].getResolutionMillis();
+  }
+
+  /**
+   * Get the approximate memory used by the compressed blocks of all stats
+   *
+   * @return The size in bytes
+   */
+  public synchronized long sizeBytes() {
+    long size = 0;
+    for(TrackerSeries trackerSeries : trackers.values()) {
+      for(StatSeries series : trackerSeries.stats) {
+        for(TimeSeries timeSeries : series.tiers) {
+          size += timeSeries.sizeBytes();
+        }
+      }
+    }
+    return size;
+  }
+
+  private class TrackerSeries {
+    private final List<StatSeries> stats = new ArrayList<>();
+    private int cursor;
+
+    /**
+     * Drop the stats last logged before the given expiry
+     *
+     * @return true if no stats remain
+     */
+    private boolean expire(long expiry) {
+      for(int i = stats.size() - 1; i >= 0; i--) {
+        if(stats.get(i).lastTimestamp < expiry) {
+          stats.remove(i);
+        }
+      }
+      return stats.isEmpty();
+    }
+
+    /**
+     * Find the series of a stat, creating it if needed. Trackers typically log their stats in the same order every time, so the next series in order is checked
+     * before searching.
+     */
+    private StatSeries find(CharSequence name, StatKind kind) {
+      if(cursor < stats.size() && stats.get(cursor).matches(name)) {
+        return stats.get(cursor++);
+      }
+      for(int i = 0; i < stats.size(); i++) {
+        if(stats.get(i).matches(name)) {
+          cursor = i + 1;
+          return stats.get(i);
+        }
+      }
+      if(stats.size() >= maxStats) {
+        return null;
+      }
+      final StatSeries series = new StatSeries(name.toString(), kind);
+      stats.add(cursor, series);
+      cursor++;
+      return series;
+    }
+
+    private StatSeries get(String name) {
+      for(int i = 0; i < stats.size(); i++) {
+        if(stats.get(i).name.equals(name)) {
+          return stats.get(i);
+        }
+      }
+      return null;
+    }
+  }
+
+  private class StatSeries {
+    private final String name;
+    private final TimeSeries[] tiers;
+    private long lastTimestamp;
+
+    private StatSeries(String name, StatKind kind) {
+      this.name = name;
+      this.tiers = new TimeSeries[RetentionStore.this.tiers.length];
+      for(int i = 0; i < tiers.length; i++) {
+        tiers[i] = new TimeSeries(RetentionStore.this.tiers[i], blockSize, kind);
+      }
+    }
+
+    private boolean matches(CharSequence other) {
+      if(other.length() != name.length()) {
+        return false;
+      }
+      for(int i = 0; i < name.length(); i++) {
+        if(other.charAt(i) != name.charAt(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Points decoded under the store's lock, to be given to a query's consumer after the lock is released
+   */
+  private static class PointBuffer implements LongDoubleConsumer {
+    private long[] timestamps = new long[64];
+    private double[] values = new double[64];
+    private int size;
+
+    @Override
+    public void accept(long timestamp, double value) {
+      if(size == timestamps.length) {
+        timestamps = Arrays.copyOf(timestamps, size * 2);
+        values = Arrays.copyOf(values, size * 2);
+      }
+      timestamps[size] = timestamp;
+      values[size] = value;
+      size++;
+    }
+
+    private void forEach(LongDoubleConsumer consumer) {
+      for(int i = 0; i < size; i++) {
+        consumer.accept(timestamps[i], values[i]);
+      }
+    }
+  }
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.internal.retention;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Internal class. Public methods may change or be removed without warning.
+ * <p>
+ * The resolution and retention of one tier of a {@link RetentionStore}. A resolution of 0 keeps every logged point, otherwise points are combined into
+ * buckets of the given resolution according to the stat's kind. Tiers are written as "resolution:retention", such as "tick:1h" or "1m:1d", where durations
+ * are a number followed by ms, s, m, h, or d.
+ *
+ * @author Eric Thill
+ */
+public final class RetentionTier {
+
+  public static final long TICK = 0;
+
+  private final long resolutionMillis;
+  private final long retentionMillis;
+
+  public RetentionTier(long resolutionMillis, long retentionMillis) {
+    if(resolutionMillis < 0) {
+      throw new IllegalArgumentException("resolution cannot be negative");
+    }
+    if(retentionMillis <= 0) {
+      throw new IllegalArgumentException("retention must be positive");
+    }
+    this.resolutionMillis = resolutionMillis;
+    this.retentionMillis = retentionMillis;
+  }
+
+  public long getResolutionMillis() {
+    return resolutionMillis;
+  }
+
+  public long getRetentionMillis() {
+    return retentionMillis;
+  }
+
+  /**
+   * Parse a comma-separated list of tiers, such as "tick:1h,1m:1d,1h:7d"
+   *
+   * @param tiers The tiers
+   * @return The parsed tiers, in the given order
+   */
+  public static List<RetentionTier> parseAll(String tiers) {
+    final List<RetentionTier> result = new ArrayList<>();
+    for(String tier : tiers.split(",")) {
+      if(!tier.trim().isEmpty()) {
+        result.add(parse(tier.trim()));
+      }
+    }
+    if(result.isEmpty()) {
+      throw new IllegalArgumentException("No tiers in '" + tiers + "'");
+    }
+    return result;
+  }
+
+  /**
+   * Parse a single tier, such as "1m:1d"
+   *
+   * @param tier The tier
+   * @return The parsed tier
+   */
+  public static RetentionTier parse(String tier) {
+    final String[] parts = tier.split(":");
+    if(parts.length != 2) {
+      throw new IllegalArgumentException("Tier '" + tier + "' is not in the format resolution:retention");
+    }
+    final String resolution = parts[0].trim();
+    return new RetentionTier(resolution.equals("tick") ? TICK : parseMillis(resolution), parseMillis(parts[1].trim()));
+  }
+
+  private static long parseMillis(String duration) {
+    int unitStart = 0;
+    while(unitStart < duration.length() && Character.isDigit(duration.charAt(unitStart))) {
+      unitStart++;
+    }
+    if(unitStart == 0) {
+      throw new IllegalArgumentException("Invalid duration '" + duration + "'");
+    }
+    final long amount = Long.parseLong(duration.substring(0, unitStart));
+    switch(duration.substring(unitStart)) {
+      case "ms":
+        return amount;
+      case "s":
+        return TimeUnit.SECONDS.toMillis(amount);
+      case "m":
+        return TimeUnit.MINUTES.toMillis(amount);
+      case "h":
+        return TimeUnit.HOURS.toMillis(amount);
+      case "d":
+        return TimeUnit.DAYS.toMillis(amount);
+      default:
+        throw new IllegalArgumentException("Invalid duration unit in '" + duration + "'");
+    }
+  }
+
+  @Override
+  public String toString() {
+    return (resolutionMillis == TICK ? "tick" : resolutionMillis + "ms") + ":" + retentionMillis + "ms";
+  }
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.internal.retention;
+
+import io.thill.trakrj.Stat.StatKind;
+import io.thill.trakrj.function.LongDoubleConsumer;
+
+import java.util.ArrayDeque;
+
+/**
+ * Internal class. Public methods may change or be removed without warning.
+ * <p>
+ * One tier of one stat: a ring of compressed blocks covering the tier's retention. Downsampled tiers combine points into buckets of the tier's resolution,
+ * keyed by the bucket's start timestamp, according to the stat's kind: gauges are averaged, deltas are summed, and counters keep their last value. The bucket
+ * in progress is appended once a point for a later bucket arrives, and is included in queries until then. Blocks that fall entirely outside of the retention
+ * are recycled.
+ *
+ * @author Eric Thill
+ */
+class TimeSeries {
+
+  private final long resolution;
+  private final long retention;
+  private final int blockSize;
+  private final StatKind kind;
+  private final ArrayDeque<GorillaBlock> blocks = new ArrayDeque<>();
+  private GorillaBlock spare;
+  private long lastTimestamp = Long.MIN_VALUE;
+  private long bucket;
+  private double bucketSum;
+  private long bucketCount;
+
+  TimeSeries(RetentionTier tier, int blockSize, StatKind kind) {
+    this.resolution = tier.getResolutionMillis();
+    this.retention = tier.getRetentionMillis();
+    this.blockSize = blockSize;
+    this.kind = kind;
+  }
+
+  void add(long timestamp, double value) {
+    if(resolution == RetentionTier.TICK) {
+      append(timestamp, value);
+      return;
+    }
+    final long pointBucket = timestamp - Math.floorMod(timestamp, resolution);
+    if(bucketCount > 0 && pointBucket != bucket) {
+      append(bucket, bucketValue());
+      bucketSum = 0;
+      bucketCount = 0;
+    }
+    bucket = pointBucket;
+    if(kind == StatKind.COUNTER) {
+      bucketSum = value;
+    } else {
+      bucketSum += value;
+    }
+    bucketCount++;
+  }
+
+  private double bucketValue() {
+    return kind == StatKind.GAUGE ? bucketSum / bucketCount : bucketSum;
+  }
+
+  private void append(long timestamp, double value) {
+    if(timestamp <= lastTimestamp) {
+      // points are logged in timestamp order, so a point at or before the last timestamp is dropped
+      return;
+    }
+    GorillaBlock block = blocks.peekLast();
+    if(block == null || !block.append(timestamp, value)) {
+      block = spare != null ? spare : new GorillaBlock(blockSize);
+      spare = null;
+      block.append(timestamp, value);
+      blocks.addLast(block);
+    }
+    lastTimestamp = timestamp;
+    // recycle blocks that are entirely outside of the retention
+    while(blocks.size() > 1 && blocks.peekFirst().lastTimestamp() < timestamp - retention) {
+      spare = blocks.pollFirst();
+      spare.reset();
+    }
+  }
+
+  /**
+   * Get the timestamp of the most recent point, including a bucket in progress
+   */
+  long lastTimestamp() {
+    return bucketCount > 0 ? Math.max(bucket, lastTimestamp) : lastTimestamp;
+  }
+
+  void forEach(long fromTimestamp, long toTimestamp, LongDoubleConsumer consumer) {
+    final long oldest = lastTimestamp() - retention;
+    final long from = Math.max(fromTimestamp, oldest);
+    for(GorillaBlock block : blocks) {
+      block.forEach(from, toTimestamp, consumer);
+    }
+    if(bucketCount > 0 && bucket >= from && bucket <= toTimestamp) {
+      consumer.accept(bucket, bucketValue());
+    }
+  }
+
+  long sizeBytes() {
+    return (long)(blocks.size() + (spare == null ? 0 : 1)) * blockSize;
+  }
+}
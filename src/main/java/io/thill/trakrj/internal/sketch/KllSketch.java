@@ -0,0 +1,295 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.internal.sketch;
+
+import java.util.Arrays;
+
+/**
+ * Internal class. Public methods may change or be removed without warning.
+ * <p>
+ * A KLL quantile sketch of double values (Karnin, Lang, Liberty). Values are buffered in a hierarchy of compactors, where an item at level h represents 2^h
+ * original values. When the sketch exceeds its capacity, a full compactor is sorted and every other item is promoted to the next level, starting at a random
+ * offset. Capacities shrink geometrically towards the lower levels, so memory is O(k) regardless of the number of values. The normalized rank error is
+ * independent of the value range, about 1.65% at k=200 with 99% confidence. Sketches with the same k can be merged. Exact min, max, and count are also kept.
+ *
+ * @author Eric Thill
+ */
+public class KllSketch {
+
+  public static final int DEFAULT_K = 200;
+  private static final double CAPACITY_DECAY = 2.0 / 3.0;
+  private static final int MIN_CAPACITY = 2;
+
+  private final int k;
+  private double[][] levels = new double[1][];
+  private int[] levelSizes = new int[1];
+  private int numLevels = 1;
+  private int retained;
+  private int maxRetained;
+  private long count;
+  private double min;
+  private double max;
+  private long random = 0x9E3779B97F4A7C15L;
+
+  private boolean viewDirty = true;
+  private double[] sortedValues = new double[0];
+  private long[] cumulativeWeights = new long[0];
+  private int viewSize;
+  private final int[] mergePositions = new int[64];
+
+  public KllSketch() {
+    this(DEFAULT_K);
+  }
+
+  /**
+   * @param k The size of the top compactor, which trades memory for accuracy
+   */
+  public KllSketch(int k) {
+    if(k < MIN_CAPACITY) {
+      throw new IllegalArgumentException("k must be at least " + MIN_CAPACITY);
+    }
+    this.k = k;
+    levels[0] = new double[capacity(0)];
+    maxRetained = computeMaxRetained();
+    reset();
+  }
+
+  public int getK() {
+    return k;
+  }
+
+  private int capacity(int level) {
+    final int depth = numLevels - level - 1;
+    return Math.max(MIN_CAPACITY, (int)Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)));
+  }
+
+  private int computeMaxRetained() {
+    int total = 0;
+    for(int h = 0; h < numLevels; h++) {
+      total += capacity(h);
+    }
+    return total;
+  }
+
+  public void update(double value) {
+    if(Double.isNaN(value)) {
+      return;
+    }
+    if(value < min) {
+      min = value;
+    }
+    if(value > max) {
+      max = value;
+    }
+    count++;
+    append(0, value);
+    retained++;
+    if(retained >= maxRetained) {
+      compress();
+    }
+    viewDirty = true;
+  }
+
+  private void append(int level, double value) {
+    double[] buffer = levels[level];
+    if(levelSizes[level] == buffer.length) {
+      buffer = levels[level] = Arrays.copyOf(buffer, Math.max(MIN_CAPACITY, buffer.length * 2));
+    }
+    buffer[levelSizes[level]++] = value;
+  }
+
+  private void addLevel() {
+    if(numLevels == levels.length) {
+      levels = Arrays.copyOf(levels, numLevels * 2);
+      levelSizes = Arrays.copyOf(levelSizes, numLevels * 2);
+    }
+    levels[numLevels] = new double[MIN_CAPACITY];
+    levelSizes[numLevels] = 0;
+    numLevels++;
+    maxRetained = computeMaxRetained();
+  }
+
+  private void compress() {
+    for(int h = 0; h < numLevels; h++) {
+      if(levelSizes[h] >= capacity(h)) {
+        if(h + 1 >= numLevels) {
+          addLevel();
+        }
+        compact(h);
+        if(retained < maxRetained) {
+          break;
+        }
+      }
+    }
+  }
+
+  private void compact(int level) {
+    final double[] buffer = levels[level];
+    int size = levelSizes[level];
+    // an odd item out stays at this level so weight is conserved
+    final boolean odd = (size & 1) == 1;
+    if(odd) {
+      size--;
+    }
+    Arrays.sort(buffer, 0, size);
+    final int offset = nextBit();
+    for(int i = offset; i < size; i += 2) {
+      append(level + 1, buffer[i]);
+    }
+    if(odd) {
+      buffer[0] = buffer[size];
+      levelSizes[level] = 1;
+    } else {
+      levelSizes[level] = 0;
+    }
+    retained -= size / 2;
+  }
+
+  private int nextBit() {
+    random ^= random << 13;
+    random ^= random >>> 7;
+    random ^= random << 17;
+    return (int)(random & 1);
+  }
+
+  /**
+   * Merge the given sketch into this sketch. The other sketch is not modified.
+   *
+   * @param other The sketch to merge from, which must have the same k and must not be this sketch
+   */
+  public void merge(KllSketch other) {
+    if(other == this) {
+      // appending to the levels being read would never finish
+      throw new IllegalArgumentException("Cannot merge a sketch into itself");
+    }
+    if(other.k != k) {
+      throw new IllegalArgumentException("Cannot merge k=" + other.k + " into k=" + k);
+    }
+    if(other.count == 0) {
+      return;
+    }
+    while(numLevels < other.numLevels) {
+      addLevel();
+    }
+    for(int h = 0; h < other.numLevels; h++) {
+      final double[] buffer = other.levels[h];
+      for(int i = 0; i < other.levelSizes[h]; i++) {
+        append(h, buffer[i]);
+      }
+      retained += other.levelSizes[h];
+    }
+    count += other.count;
+    min = Math.min(min, other.min);
+    max = Math.max(max, other.max);
+    while(retained >= maxRetained) {
+      compress();
+    }
+    viewDirty = true;
+  }
+
+  public void reset() {
+    for(int h = 0; h < numLevels; h++) {
+      levelSizes[h] = 0;
+    }
+    retained = 0;
+    count = 0;
+    min = Double.POSITIVE_INFINITY;
+    max = Double.NEGATIVE_INFINITY;
+    viewDirty = true;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public double getMin() {
+    return min;
+  }
+
+  public double getMax() {
+    return max;
+  }
+
+  public int getRetained() {
+    return retained;
+  }
+
+  /**
+   * Get the approximate value at the given rank
+   *
+   * @param rank The normalized rank, between 0.0 and 1.0 inclusive
+   * @return The value at the given rank, or NaN if the sketch is empty
+   */
+  public double getQuantile(double rank) {
+    if(count == 0) {
+      return Double.NaN;
+    }
+    if(rank <= 0) {
+      return min;
+    }
+    if(rank >= 1) {
+      return max;
+    }
+    updateView();
+    final long target = (long)Math.ceil(rank * cumulativeWeights[viewSize - 1]);
+    int lo = 0;
+    int hi = viewSize - 1;
+    while(lo < hi) {
+      final int mid = (lo + hi) >>> 1;
+      if(cumulativeWeights[mid] < target) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return sortedValues[lo];
+  }
+
+  private void updateView() {
+    if(!viewDirty) {
+      return;
+    }
+    if(sortedValues.length < retained) {
+      sortedValues = new double[retained];
+      cumulativeWeights = new long[retained];
+    }
+    // sort each level in place, then merge the levels by value, weighting each item by 2^level
+    for(int h = 0; h < numLevels; h++) {
+      Arrays.sort(levels[h], 0, levelSizes[h]);
+      mergePositions[h] = 0;
+    }
+    long cumulative = 0;
+    viewSize = 0;
+    while(true) {
+      int minLevel = -1;
+      double minValue = 0;
+      for(int h = 0; h < numLevels; h++) {
+        if(mergePositions[h] < levelSizes[h]) {
+          final double value = levels[h][mergePositions[h]];
+          if(minLevel == -1 || value < minValue) {
+            minLevel = h;
+            minValue = value;
+          }
+        }
+      }
+      if(minLevel == -1) {
+        break;
+      }
+      mergePositions[minLevel]++;
+      cumulative += 1L << minLevel;
+      sortedValues[viewSize] = minValue;
+      cumulativeWeights[viewSize] = cumulative;
+      viewSize++;
+    }
+    viewDirty = false;
+  }
+}
@@ -0,0 +1,249 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.jvm;
+
+import io.thill.trakrj.Interval;
+import io.thill.trakrj.Intervals;
+import io.thill.trakrj.Stats;
+import io.thill.trakrj.TrackerId;
+import io.thill.trakrj.clock.Clock;
+import io.thill.trakrj.internal.exception.Exceptions;
+import io.thill.trakrj.trackers.GaugeTracker;
+import io.thill.trakrj.trackers.KeyedHistogramTracker;
+import org.eclipse.collections.api.map.primitive.MutableLongLongMap;
+import org.eclipse.collections.impl.factory.primitive.LongLongMaps;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Registers a standard set of JVM runtime trackers with a {@link Stats} instance, so JVM health is logged alongside application metrics. Everything except GC
+ * pauses is polled with a {@link GaugeTracker} on the conductor thread, so no additional threads are started. GC pauses are recorded from
+ * {@link GarbageCollectorMXBean} notifications into a {@link KeyedHistogramTracker} keyed by collector name. The following trackers are registered, where
+ * "jvm" is the default prefix:
+ * <ul>
+ * <li>jvm_gc_pause - GC durations in milliseconds per collector and across all collectors, as reported by the collector. Collector names are sanitized like
+ * pool names, such as "G1_Young_Generation". Collectors that report concurrent cycles rather than pauses, such as "G1 Concurrent GC" and "ZGC Cycles", are
+ * not recorded. Time spent reaching a safepoint and non-GC safepoint pauses are not included, so total application stop time may be higher.</li>
+ * <li>jvm_heap_used, jvm_heap_committed, jvm_heap_max, jvm_nonheap_used, jvm_nonheap_committed - heap and non-heap usage in bytes</li>
+ * <li>jvm_pool_NAME_used - usage of each memory pool in bytes</li>
+ * <li>jvm_buffer_NAME_used, jvm_buffer_NAME_capacity, jvm_buffer_NAME_count - direct and mapped buffer pool usage</li>
+ * <li>jvm_threads_live, jvm_threads_daemon, jvm_threads_peak - thread counts</li>
+ * <li>jvm_allocation_rate - bytes allocated per second across live threads, when supported by the JVM</li>
+ * </ul>
+ * Closing the returned instance stops listening for GC notifications. Registered trackers remain registered for the life of the {@link Stats} instance.
+ *
+ * @author Eric Thill
+ */
+public class JvmMetrics implements AutoCloseable {
+
+  private static final String DEFAULT_PREFIX = "jvm";
+  private static final String GC_NOTIFICATION = "com.sun.management.gc.notification";
+  private static final int MAX_COLLECTORS = 16;
+
+  /**
+   * Register the JVM trackers with the "jvm" prefix
+   *
+   * @param stats       The stats instance to register with
+   * @param logInterval The log interval of every registered tracker
+   * @return The registered metrics, which should be closed to stop listening for GC notifications
+   */
+  public static JvmMetrics register(Stats stats, Interval logInterval) {
+    return register(stats, DEFAULT_PREFIX, logInterval);
+  }
+
+  /**
+   * Register the JVM trackers with the given prefix
+   *
+   * @param stats       The stats instance to register with
+   * @param prefix      The prefix of every tracker's display name, which must match [0-9A-Za-z_]+
+   * @param logInterval The log interval of every registered tracker
+   * @return The registered metrics, which should be closed to stop listening for GC notifications
+   */
+  public static JvmMetrics register(Stats stats, String prefix, Interval logInterval) {
+    final JvmMetrics metrics = new JvmMetrics(stats, prefix, logInterval);
+    metrics.registerGc();
+    metrics.registerMemory();
+    metrics.registerBufferPools();
+    metrics.registerThreads();
+    return metrics;
+  }
+
+  private final List<Runnable> closeActions = new ArrayList<>();
+  private final Stats stats;
+  private final String prefix;
+  private final Interval logInterval;
+
+  private JvmMetrics(Stats stats, String prefix, Interval logInterval) {
+    this.stats = stats;
+    this.prefix = prefix;
+    this.logInterval = logInterval;
+  }
+
+  private void registerGc() {
+    final TrackerId id = TrackerId.generate(prefix + "_gc_pause");
+    stats.register(id, new KeyedHistogramTracker(MAX_COLLECTORS), logInterval, logInterval);
+    for(GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+      if(gc instanceof NotificationEmitter && !isConcurrentCycle(gc.getName())) {
+        // each listener only hears its own collector, so the key is sanitized once
+        final String key = sanitize(gc.getName());
+        final NotificationListener listener = (Notification notification, Object handback) -> {
+          if(GC_NOTIFICATION.equals(notification.getType())) {
+            final CompositeData info = (CompositeData)notification.getUserData();
+            final CompositeData gcInfo = (CompositeData)info.get("gcInfo");
+            stats.record(id, key, (long)gcInfo.get("duration"));
+          }
+        };
+        final NotificationEmitter emitter = (NotificationEmitter)gc;
+        emitter.addNotificationListener(listener, null, null);
+        closeActions.add(() -> {
+          try {
+            emitter.removeNotificationListener(listener);
+          } catch(Throwable t) {
+            Exceptions.logError("Could not remove GC listener", t);
+          }
+        });
+      }
+    }
+  }
+
+  private static boolean isConcurrentCycle(String name) {
+    // "G1 Concurrent GC", "ZGC Cycles", "Shenandoah Cycles" and "ConcurrentMarkSweep" report the duration of mostly concurrent work, not a pause
+    return name.contains("Concurrent") || name.endsWith("Cycles");
+  }
+
+  private void registerMemory() {
+    final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    gauge("heap_used", () -> memory.getHeapMemoryUsage().getUsed());
+    gauge("heap_committed", () -> memory.getHeapMemoryUsage().getCommitted());
+    gauge("heap_max", () -> memory.getHeapMemoryUsage().getMax());
+    gauge("nonheap_used", () -> memory.getNonHeapMemoryUsage().getUsed());
+    gauge("nonheap_committed", () -> memory.getNonHeapMemoryUsage().getCommitted());
+    for(MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      gauge("pool_" + sanitize(pool.getName()) + "_used", () -> pool.getUsage().getUsed());
+    }
+  }
+
+  private void registerBufferPools() {
+    for(BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+      final String name = "buffer_" + sanitize(pool.getName());
+      gauge(name + "_used", pool::getMemoryUsed);
+      gauge(name + "_capacity", pool::getTotalCapacity);
+      gauge(name + "_count", pool::getCount);
+    }
+  }
+
+  private void registerThreads() {
+    final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    gauge("threads_live", threads::getThreadCount);
+    gauge("threads_daemon", threads::getDaemonThreadCount);
+    gauge("threads_peak", threads::getPeakThreadCount);
+    if(threads instanceof com.sun.management.ThreadMXBean) {
+      final com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean)threads;
+      if(sunThreads.isThreadAllocatedMemorySupported() && sunThreads.isThreadAllocatedMemoryEnabled()) {
+        gauge("allocation_rate", new AllocationRate(sunThreads, stats.clock()));
+      }
+    }
+  }
+
+  private void gauge(String name, LongSupplier supplier) {
+    stats.register(TrackerId.generate(prefix + "_" + name), new GaugeTracker(supplier), logInterval, Intervals.never());
+  }
+
+  private void gauge(String name, DoubleSupplier supplier) {
+    stats.register(TrackerId.generate(prefix + "_" + name), new GaugeTracker(supplier), logInterval, Intervals.never());
+  }
+
+  private static String sanitize(String name) {
+    // collapse each run of illegal characters to a single underscore, e.g. "CodeHeap 'non-nmethods'" -> "CodeHeap_non_nmethods"
+    final StringBuilder sb = new StringBuilder(name.length());
+    boolean pendingUnderscore = false;
+    for(int i = 0; i < name.length(); i++) {
+      final char c = name.charAt(i);
+      if((c >= '0' && c <= '9') || (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z')) {
+        if(pendingUnderscore && sb.length() > 0) {
+          sb.append('_');
+        }
+        pendingUnderscore = false;
+        sb.append(c);
+      } else {
+        pendingUnderscore = true;
+      }
+    }
+    return sb.toString();
+  }
+
+  @Override
+  public void close() {
+    for(Runnable action : closeActions) {
+      action.run();
+    }
+    closeActions.clear();
+  }
+
+  /**
+   * Bytes allocated per second since the previous poll. Each thread's allocation is diffed against its own previous value, so threads that exit between polls
+   * do not make the rate go negative.
+   */
+  private static class AllocationRate implements DoubleSupplier {
+    private final com.sun.management.ThreadMXBean threads;
+    private final Clock clock;
+    private MutableLongLongMap previous = LongLongMaps.mutable.empty();
+    private MutableLongLongMap current = LongLongMaps.mutable.empty();
+    private long previousMillis;
+
+    private AllocationRate(com.sun.management.ThreadMXBean threads, Clock clock) {
+      this.threads = threads;
+      this.clock = clock;
+      this.previousMillis = clock.millis();
+      poll();
+    }
+
+    private long poll() {
+      final long[] ids = threads.getAllThreadIds();
+      final long[] allocated = threads.getThreadAllocatedBytes(ids);
+      long delta = 0;
+      current.clear();
+      for(int i = 0; i < ids.length; i++) {
+        if(allocated[i] >= 0) {
+          delta += allocated[i] - previous.getIfAbsent(ids[i], 0);
+          current.put(ids[i], allocated[i]);
+        }
+      }
+      final MutableLongLongMap swap = previous;
+      previous = current;
+      current = swap;
+      return delta;
+    }
+
+    @Override
+    public double getAsDouble() {
+      final long delta = poll();
+      final long millis = clock.millis();
+      final double seconds = (millis - previousMillis) / 1000.0;
+      previousMillis = millis;
+      return seconds > 0 ? delta / seconds : 0;
+    }
+  }
+}
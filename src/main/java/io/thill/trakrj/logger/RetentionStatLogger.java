@@ -0,0 +1,204 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.logger;
+
+import io.thill.trakrj.Stat.StatKind;
+import io.thill.trakrj.Stat.StatType;
+import io.thill.trakrj.StatVisitor;
+import io.thill.trakrj.Tracker;
+import io.thill.trakrj.TrackerId;
+import io.thill.trakrj.function.LongDoubleConsumer;
+import io.thill.trakrj.internal.retention.RetentionStore;
+import io.thill.trakrj.internal.retention.RetentionTier;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the history of every logged long and double stat in memory, so recent history can be queried from a live process without an external database.
+ * Stats are kept in tiers of decreasing resolution, by default every log for 1 hour, 1 minute averages for 1 day, and 1 hour averages for 7 days. Points are
+ * compressed with delta-of-delta timestamps and XOR'd values, and memory is bounded by the retention of each tier. Downsampled tiers average gauges, sum
+ * {@link StatKind#DELTA} stats, and keep the last value of {@link StatKind#COUNTER} stats. Object and null stats are not kept.
+ * <p>
+ * Typically used alongside another logger with the {@link MultiStatLogger}. A configured logger can be looked up by its name using {@link #get(String)}.
+ * Queries may be run from any thread.
+ *
+ * @author Eric Thill
+ */
+public class RetentionStatLogger implements StatLogger {
+
+  private static final String CFGKEY_NAME = "name";
+  private static final String CFGKEY_TIERS = "tiers";
+  private static final String CFGKEY_BLOCK_SIZE = "block.size";
+  private static final String CFGKEY_MAX_STATS = "max.stats";
+  private static final String DEFAULT_NAME = "default";
+  private static final String DEFAULT_TIERS = "tick:1h,1m:1d,1h:7d";
+  private static final Map<String, RetentionStatLogger> CONFIGURED = new ConcurrentHashMap<>();
+
+  private final Appender appender = new Appender();
+  private volatile RetentionStore store;
+  private String name;
+
+  public RetentionStatLogger() {
+    this(DEFAULT_TIERS);
+  }
+
+  /**
+   * @param tiers The comma-separated resolution:retention tiers, such as "tick:1h,1m:1d,1h:7d"
+   */
+  public RetentionStatLogger(String tiers) {
+    this.store = new RetentionStore(RetentionTier.parseAll(tiers));
+  }
+
+  /**
+   * Get a logger that was configured with the given name
+   *
+   * @param name The name of the logger
+   * @return The logger, or null if no open logger was configured with the given name
+   */
+  public static RetentionStatLogger get(String name) {
+    return CONFIGURED.get(name);
+  }
+
+  @Override
+  public void configure(Map<String, String> config) {
+    final List<RetentionTier> tiers = RetentionTier.parseAll(config.getOrDefault(CFGKEY_TIERS, DEFAULT_TIERS));
+    final int blockSize = Integer.parseInt(config.getOrDefault(CFGKEY_BLOCK_SIZE, Integer.toString(RetentionStore.DEFAULT_BLOCK_SIZE)));
+    final int maxStats = Integer.parseInt(config.getOrDefault(CFGKEY_MAX_STATS, Integer.toString(RetentionStore.DEFAULT_MAX_STATS)));
+    store = new RetentionStore(tiers, blockSize, maxStats);
+    if(name != null) {
+      CONFIGURED.remove(name, this);
+    }
+    name = config.getOrDefault(CFGKEY_NAME, DEFAULT_NAME);
+    CONFIGURED.put(name, this);
+  }
+
+  @Override
+  public void log(TrackerId id, Tracker tracker, long timestamp) {
+    final RetentionStore store = this.store;
+    store.begin(id.display(), timestamp);
+    try {
+      appender.store = store;
+      tracker.visit(appender);
+    } finally {
+      appender.store = null;
+      store.end();
+    }
+  }
+
+  /**
+   * Get the tiers of this logger's store
+   *
+   * @return The tiers, from the finest resolution to the coarsest
+   */
+  public List<RetentionTier> getTiers() {
+    return store.getTiers();
+  }
+
+  /**
+   * Get the display names of all logged trackers
+   *
+   * @return The tracker names
+   */
+  public Set<String> trackers() {
+    return store.trackers();
+  }
+
+  /**
+   * Get the names of the kept stats of a tracker
+   *
+   * @param tracker The tracker's display name
+   * @return The stat names, empty if the tracker has not been logged
+   */
+  public List<String> stats(String tracker) {
+    return store.stats(tracker);
+  }
+
+  /**
+   * Query the history of a stat within a time range, using the finest tier whose retention covers the start of the range
+   *
+   * @param tracker       The tracker's display name
+   * @param stat          The stat name
+   * @param fromTimestamp The inclusive start of the range in milliseconds
+   * @param toTimestamp   The inclusive end of the range in milliseconds
+   * @param consumer      The consumer of every timestamp:value point in the range, in timestamp order
+   * @return The resolution of the points in milliseconds, 0 for every log, or -1 if the stat has not been logged
+   */
+  public long query(String tracker, String stat, long fromTimestamp, long toTimestamp, LongDoubleConsumer consumer) {
+    return store.query(tracker, stat, fromTimestamp, toTimestamp, consumer);
+  }
+
+  /**
+   * Query the history of a stat within a time range, using the finest tier with at least the given resolution
+   *
+   * @param tracker          The tracker's display name
+   * @param stat             The stat name
+   * @param resolutionMillis The minimum resolution in milliseconds
+   * @param fromTimestamp    The inclusive start of the range in milliseconds
+   * @param toTimestamp      The inclusive end of the range in milliseconds
+   * @param consumer         The consumer of every timestamp:value point in the range, in timestamp order
+   * @return The resolution of the points in milliseconds, 0 for every log, or -1 if the stat has not been logged
+   */
+  public long query(String tracker, String stat, long resolutionMillis, long fromTimestamp, long toTimestamp, LongDoubleConsumer consumer) {
+    return store.query(tracker, stat, resolutionMillis, fromTimestamp, toTimestamp, consumer);
+  }
+
+  /**
+   * Get the approximate memory used by the kept history
+   *
+   * @return The size in bytes
+   */
+  public long sizeBytes() {
+    return store.sizeBytes();
+  }
+
+  @Override
+  public void close() {
+    if(name != null) {
+      CONFIGURED.remove(name, this);
+    }
+  }
+
+  /**
+   * Appends long and double stats to the store. Object and null stats are skipped.
+   */
+  private static class Appender implements StatVisitor {
+    private RetentionStore store;
+
+    @Override
+    public void visitLong(CharSequence name, long value) {
+      store.append(name, value);
+    }
+
+    @Override
+    public void visitDouble(CharSequence name, double value) {
+      store.append(name, value);
+    }
+
+    @Override
+    public void visitCounter(CharSequence name, long value, StatKind kind) {
+      store.append(name, value, kind);
+    }
+
+    @Override
+    public void visitObject(CharSequence name, Object value) {
+      // not numeric
+    }
+
+    @Override
+    public void visitNull(CharSequence name, StatType type) {
+      // nothing to keep
+    }
+  }
+}
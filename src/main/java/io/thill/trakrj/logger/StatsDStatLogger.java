@@ -11,23 +11,26 @@
  */
 package io.thill.trakrj.logger;
 
-import io.thill.trakrj.Stat;
+import io.thill.trakrj.Stat.StatKind;
 import io.thill.trakrj.Stat.StatType;
+import io.thill.trakrj.StatVisitor;
 import io.thill.trakrj.Tracker;
 import io.thill.trakrj.TrackerId;
 import io.thill.trakrj.internal.exception.Exceptions;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.DatagramSocket;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.DatagramChannel;
-import java.nio.charset.Charset;
-import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
+ * Sends every long and double stat of a tracker as a StatsD gauge, or as a counter for {@link StatKind#DELTA} stats. Stats are emitted through
+ * {@link Tracker#visit(StatVisitor)} and encoded into a reusable packet buffer, so logging does not allocate once the buffer is sized.
+ *
  * @author Eric Thill
  */
 public class StatsDStatLogger implements StatLogger {
@@ -40,7 +43,6 @@ public class StatsDStatLogger implements StatLogger {
   private static final String DEFAULT_HOST = "localhost";
   private static final int DEFAULT_PORT = 8125;
   private static final int DEFAULT_PACKET_SIZE = 500;
-  private static final Charset UTF8 = Charset.forName("UTF-8");
   private static final int ERROR_LOG_THROTTLE_MILLIS = 60000;
 
   private String namePrefix;
@@ -49,7 +51,11 @@ public class StatsDStatLogger implements StatLogger {
   private int packetSize;
   private long throttledErrorsTimeout;
   private long throttledErrorsCount;
-  private AtomicReference<DatagramChannel> socket = new AtomicReference<>();
+  private final AtomicReference<DatagramChannel> socket = new AtomicReference<>();
+  private final StatVisitor packetWriter = new PacketWriter();
+  private final StringBuilder line = new StringBuilder();
+  private ByteBuffer packet;
+  private String display;
 
   public StatsDStatLogger() {
     this(DEFAULT_NAME_PREFIX, DEFAULT_HOST, DEFAULT_PORT, DEFAULT_PACKET_SIZE);
@@ -72,7 +78,8 @@ public class StatsDStatLogger implements StatLogger {
     hostname = config.getOrDefault(CFGKEY_HOST, DEFAULT_HOST);
     port = Integer.parseInt(config.getOrDefault(CFGKEY_PORT, Integer.toString(DEFAULT_PORT)));
     packetSize = Integer.parseInt(config.getOrDefault(CFGKEY_PACKET_SIZE, Integer.toString(DEFAULT_PACKET_SIZE)));
-    socket = null;
+    packet = null;
+    closeSocket();
   }
 
   private void connect() throws IOException {
@@ -83,49 +90,23 @@ public class StatsDStatLogger implements StatLogger {
 
   @Override
   public void log(TrackerId id, Tracker tracker, long timestamp) {
-    List<? extends Stat> stats = tracker.stats();
     try {
       // connect
       if(socket.get() == null) {
         connect();
       }
+      if(packet == null) {
+        packet = ByteBuffer.allocateDirect(packetSize);
+      }
 
       // send packet(s)
-      StringBuilder packet = new StringBuilder();
-      for(Stat s : stats) {
-        if(s.type() != StatType.OBJECT && !s.isNull()) {
-          StringBuilder statStr = new StringBuilder()
-                  .append(namePrefix).append(id.display()).append(".").append(s.name()).append("=");
-          switch(s.type()) {
-            case DOUBLE:
-              statStr.append(s.doubleValue());
-              break;
-            case LONG:
-              statStr.append(s.longValue());
-              break;
-          }
-          statStr.append("|g");
-
-          // flush packet if length would exceed packetSize
-          if(packet.length() > 0 && packet.length() + statStr.length() + 1 > packetSize) {
-            send(packet.toString());
-            statStr.setLength(0);
-            packet.setLength(0);
-          }
-
-          // append newline if this is not the first stat in the packet
-          if(packet.length() > 0) {
-            packet.append('\n');
-          }
-
-          // append stat to packet
-          packet.append(statStr);
-        }
-      }
+      display = id.display();
+      packet.clear();
+      tracker.visit(packetWriter);
 
       // send remaining packet
-      if(packet.length() > 0) {
-        send(packet.toString());
+      if(packet.position() > 0) {
+        send();
       }
     } catch(Throwable t) {
       throttleLogError(t);
@@ -133,6 +114,33 @@ public class StatsDStatLogger implements StatLogger {
     }
   }
 
+  private StringBuilder startLine(CharSequence name) {
+    line.setLength(0);
+    return line.append(namePrefix).append(display).append('.').append(name).append(':');
+  }
+
+  private void writeLine() {
+    final int length = utf8Length(line);
+
+    // flush packet if length would exceed packetSize
+    if(packet.position() > 0 && packet.position() + length + 1 > packetSize) {
+      send();
+    }
+
+    // append newline if this is not the first stat in the packet
+    if(packet.position() > 0) {
+      packet.put((byte)'\n');
+    }
+
+    // a single stat larger than packetSize is sent in its own packet
+    if(length > packet.remaining()) {
+      packet = ByteBuffer.allocateDirect(length);
+    }
+
+    // append stat to packet
+    putUtf8(line, packet);
+  }
+
   private void throttleLogError(Throwable t) {
     if(System.currentTimeMillis() >= throttledErrorsTimeout) {
       Exceptions.logError("Could not send StatsD packet (throttledErrors=" + throttledErrorsCount + ")", t);
@@ -143,11 +151,56 @@ public class StatsDStatLogger implements StatLogger {
     }
   }
 
-  private void send(String str) throws IOException {
+  private void send() {
     DatagramChannel socket = this.socket.get();
     if(socket != null) {
-      final byte[] sendData = str.getBytes(UTF8);
-      socket.write(ByteBuffer.wrap(sendData));
+      packet.flip();
+      try {
+        socket.write(packet);
+      } catch(IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    packet.clear();
+  }
+
+  private static int utf8Length(CharSequence s) {
+    int length = 0;
+    for(int i = 0; i < s.length(); i++) {
+      final char c = s.charAt(i);
+      if(c < 0x80) {
+        length += 1;
+      } else if(c < 0x800) {
+        length += 2;
+      } else if(Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+        length += 4;
+        i++;
+      } else {
+        length += 3;
+      }
+    }
+    return length;
+  }
+
+  private static void putUtf8(CharSequence s, ByteBuffer buffer) {
+    for(int i = 0; i < s.length(); i++) {
+      final char c = s.charAt(i);
+      if(c < 0x80) {
+        buffer.put((byte)c);
+      } else if(c < 0x800) {
+        buffer.put((byte)(0xC0 | (c >> 6)));
+        buffer.put((byte)(0x80 | (c & 0x3F)));
+      } else if(Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+        final int cp = Character.toCodePoint(c, s.charAt(++i));
+        buffer.put((byte)(0xF0 | (cp >> 18)));
+        buffer.put((byte)(0x80 | ((cp >> 12) & 0x3F)));
+        buffer.put((byte)(0x80 | ((cp >> 6) & 0x3F)));
+        buffer.put((byte)(0x80 | (cp & 0x3F)));
+      } else {
+        buffer.put((byte)(0xE0 | (c >> 12)));
+        buffer.put((byte)(0x80 | ((c >> 6) & 0x3F)));
+        buffer.put((byte)(0x80 | (c & 0x3F)));
+      }
     }
   }
 
@@ -166,4 +219,37 @@ public class StatsDStatLogger implements StatLogger {
       }
     }
   }
+
+  /**
+   * Writes long and double stats to the packet. Object and null stats are skipped.
+   */
+  private class PacketWriter implements StatVisitor {
+    @Override
+    public void visitLong(CharSequence name, long value) {
+      startLine(name).append(value).append("|g");
+      writeLine();
+    }
+
+    @Override
+    public void visitCounter(CharSequence name, long value, StatKind kind) {
+      startLine(name).append(value).append(kind == StatKind.DELTA ? "|c" : "|g");
+      writeLine();
+    }
+
+    @Override
+    public void visitDouble(CharSequence name, double value) {
+      startLine(name).append(value).append("|g");
+      writeLine();
+    }
+
+    @Override
+    public void visitObject(CharSequence name, Object value) {
+      // not supported by statsd
+    }
+
+    @Override
+    public void visitNull(CharSequence name, StatType type) {
+      // nothing to send
+    }
+  }
 }
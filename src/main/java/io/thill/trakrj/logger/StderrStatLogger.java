@@ -14,7 +14,6 @@ package io.thill.trakrj.logger;
 import io.thill.trakrj.Tracker;
 import io.thill.trakrj.TrackerId;
 
-import javax.xml.bind.annotation.XmlType.DEFAULT;
 import java.util.Date;
 import java.util.Map;
 
@@ -31,7 +31,7 @@ public abstract class AbstractLongTracker implements Tracker {
 
   public AbstractLongTracker(long nullValue) {
     this.nullValue = nullValue;
-    stat = new SettableStat(STAT_NAME, StatType.DOUBLE);
+    stat = new SettableStat(STAT_NAME, StatType.LONG);
     stats = Arrays.asList(stat);
   }
 
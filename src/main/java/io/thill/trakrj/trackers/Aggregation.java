@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.trackers;
+
+/**
+ * The per-key aggregation applied by the aggregate map trackers
+ *
+ * @author Eric Thill
+ */
+public enum Aggregation {
+  /**
+   * Sum of the values recorded for each key
+   */
+  SUM,
+  /**
+   * Number of records for each key. Values are ignored.
+   */
+  COUNT,
+  /**
+   * Min of the values recorded for each key
+   */
+  MIN,
+  /**
+   * Max of the values recorded for each key
+   */
+  MAX,
+  /**
+   * Average of the values recorded for each key
+   */
+  AVERAGE
+}
@@ -0,0 +1,309 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.trackers;
+
+import io.thill.trakrj.Interval;
+import io.thill.trakrj.Record;
+import io.thill.trakrj.Stat;
+import io.thill.trakrj.Stat.StatKind;
+import io.thill.trakrj.Stat.StatType;
+import io.thill.trakrj.StatVisitor;
+import io.thill.trakrj.Tracker;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tracker that applies every record to a list of named child trackers, so a single recorded value can feed many views while only using one ring buffer slot
+ * and one tracker lookup. Each child's stats are prefixed by its name, as "name.stat". Tick, sample, and resets are passed to every child. Children must be
+ * added before the composite is registered.
+ *
+ * <pre>
+ * stats.register(ID, new CompositeTracker()
+ *         .add("latency", new HistogramTracker())
+ *         .add("rate", new RateTracker())
+ *         .add("last", new LastLongTracker()), Intervals.seconds(5), Intervals.seconds(5));
+ * </pre>
+ *
+ * @author Eric Thill
+ */
+public class CompositeTracker implements Tracker {
+
+  private final List<String> names = new ArrayList<>();
+  private final List<Tracker> children = new ArrayList<>();
+  private final PrefixVisitor prefixVisitor = new PrefixVisitor();
+  private SampleSchedule sampleSchedule;
+
+  /**
+   * Add a child tracker
+   *
+   * @param name    The name of the child, used as the prefix of its stats
+   * @param tracker The child tracker
+   * @return this
+   */
+  public CompositeTracker add(String name, Tracker tracker) {
+    if(name == null || name.isEmpty()) {
+      throw new IllegalArgumentException("name cannot be empty");
+    }
+    if(names.contains(name)) {
+      throw new IllegalArgumentException("Duplicate child name '" + name + "'");
+    }
+    if(tracker == null) {
+      throw new IllegalArgumentException("tracker cannot be null");
+    }
+    names.add(name);
+    children.add(tracker);
+    return this;
+  }
+
+  /**
+   * Get the child tracker with the given name
+   *
+   * @param name The name of the child
+   * @return The child tracker, or null if there is no child with the given name
+   */
+  public Tracker get(String name) {
+    final int idx = names.indexOf(name);
+    return idx < 0 ? null : children.get(idx);
+  }
+
+  @Override
+  public void record(Record record) {
+    for(int i = 0; i < children.size(); i++) {
+      children.get(i).record(record);
+    }
+  }
+
+  @Override
+  public void tick(long timestamp) {
+    for(int i = 0; i < children.size(); i++) {
+      children.get(i).tick(timestamp);
+    }
+  }
+
+  @Override
+  public boolean changedSinceLastLog() {
+    // ask every child, so children comparing against their previous tick see every tick
+    boolean changed = false;
+    for(int i = 0; i < children.size(); i++) {
+      changed |= children.get(i).changedSinceLastLog();
+    }
+    return changed;
+  }
+
+  @Override
+  public Interval sampleInterval() {
+    if(sampleSchedule == null) {
+      final Interval[] intervals = new Interval[children.size()];
+      boolean sampled = false;
+      for(int i = 0; i < intervals.length; i++) {
+        intervals[i] = children.get(i).sampleInterval();
+        sampled |= intervals[i] != null;
+      }
+      if(!sampled) {
+        return null;
+      }
+      sampleSchedule = new SampleSchedule(intervals);
+    }
+    return sampleSchedule;
+  }
+
+  @Override
+  public void sample(long timestamp) {
+    if(sampleSchedule == null) {
+      return;
+    }
+    final long[] due = sampleSchedule.due();
+    for(int i = 0; i < due.length; i++) {
+      if(due[i] <= timestamp) {
+        children.get(i).sample(timestamp);
+        sampleSchedule.advance(due, i, timestamp);
+      }
+    }
+  }
+
+  @Override
+  public void reset() {
+    for(int i = 0; i < children.size(); i++) {
+      children.get(i).reset();
+    }
+  }
+
+  @Override
+  public void resetOnDemand() {
+    for(int i = 0; i < children.size(); i++) {
+      children.get(i).resetOnDemand();
+    }
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder sb = new StringBuilder("{");
+    for(int i = 0; i < children.size(); i++) {
+      if(i > 0) {
+        sb.append(", ");
+      }
+      sb.append(names.get(i)).append("=").append(children.get(i));
+    }
+    return sb.append("}").toString();
+  }
+
+  @Override
+  public List<? extends Stat> stats() {
+    final List<Stat> stats = new ArrayList<>();
+    for(int i = 0; i < children.size(); i++) {
+      final String prefix = names.get(i) + ".";
+      final List<? extends Stat> childStats = children.get(i).stats();
+      for(int j = 0; j < childStats.size(); j++) {
+        stats.add(copy(prefix, childStats.get(j)));
+      }
+    }
+    return stats;
+  }
+
+  private static Stat copy(String prefix, Stat stat) {
+    final SettableStat copy = new SettableStat(prefix + stat.name(), stat.type(), stat.kind());
+    if(stat.isNull()) {
+      return copy;
+    }
+    switch(stat.type()) {
+      case LONG:
+        return copy.setLongValue(stat.longValue());
+      case DOUBLE:
+        return copy.setDoubleValue(stat.doubleValue());
+      default:
+        return copy.setObjectValue(stat.objectValue());
+    }
+  }
+
+  @Override
+  public void visit(StatVisitor visitor) {
+    for(int i = 0; i < children.size(); i++) {
+      prefixVisitor.start(names.get(i), visitor);
+      children.get(i).visit(prefixVisitor);
+    }
+    prefixVisitor.delegate = null;
+  }
+
+  /**
+   * Prefixes the name of every visited stat with the name of the child being visited
+   */
+  private static class PrefixVisitor implements StatVisitor {
+    private final StringBuilder name = new StringBuilder();
+    private int prefixLength;
+    private StatVisitor delegate;
+
+    private void start(String prefix, StatVisitor delegate) {
+      this.name.setLength(0);
+      this.prefixLength = name.append(prefix).append('.').length();
+      this.delegate = delegate;
+    }
+
+    private CharSequence name(CharSequence statName) {
+      name.setLength(prefixLength);
+      return name.append(statName);
+    }
+
+    @Override
+    public void visitLong(CharSequence name, long value) {
+      delegate.visitLong(name(name), value);
+    }
+
+    @Override
+    public void visitCounter(CharSequence name, long value, StatKind kind) {
+      delegate.visitCounter(name(name), value, kind);
+    }
+
+    @Override
+    public void visitDouble(CharSequence name, double value) {
+      delegate.visitDouble(name(name), value);
+    }
+
+    @Override
+    public void visitObject(CharSequence name, Object value) {
+      delegate.visitObject(name(name), value);
+    }
+
+    @Override
+    public void visitNull(CharSequence name, StatType type) {
+      delegate.visitNull(name(name), type);
+    }
+  }
+
+  /**
+   * The union of the children's sample intervals. The scheduler walks its own copy of every child's schedule to find the next sample, while the conductor
+   * thread walks a second copy from the same starting timestamp to decide which children are due at each sample.
+   */
+  private static class SampleSchedule implements Interval {
+    private static final long UNSET = Long.MIN_VALUE;
+
+    private final Interval[] intervals;
+    private final long[] next;
+    private volatile long start = UNSET;
+    private long[] due;
+
+    private SampleSchedule(Interval[] intervals) {
+      this.intervals = intervals;
+      this.next = new long[intervals.length];
+    }
+
+    @Override
+    public long first(long timestamp) {
+      for(int i = 0; i < intervals.length; i++) {
+        next[i] = intervals[i] == null ? Long.MAX_VALUE : toDispatch(intervals[i].first(timestamp));
+      }
+      start = timestamp;
+      return earliest();
+    }
+
+    @Override
+    public long next(long timestamp) {
+      for(int i = 0; i < intervals.length; i++) {
+        if(next[i] <= timestamp) {
+          advance(next, i, timestamp);
+        }
+      }
+      return earliest();
+    }
+
+    private long earliest() {
+      long earliest = Long.MAX_VALUE;
+      for(int i = 0; i < next.length; i++) {
+        earliest = Math.min(earliest, next[i]);
+      }
+      return earliest == Long.MAX_VALUE ? NEVER : earliest;
+    }
+
+    /**
+     * Get the conductor thread's copy of the schedule, which is started from the scheduler's first timestamp the first time it is used
+     */
+    private long[] due() {
+      if(due == null) {
+        due = new long[intervals.length];
+        for(int i = 0; i < intervals.length; i++) {
+          due[i] = intervals[i] == null || start == UNSET ? Long.MAX_VALUE : toDispatch(intervals[i].first(start));
+        }
+      }
+      return due;
+    }
+
+    private void advance(long[] schedule, int i, long timestamp) {
+      while(schedule[i] <= timestamp) {
+        schedule[i] = toDispatch(intervals[i].next(schedule[i]));
+      }
+    }
+
+    private static long toDispatch(long timestamp) {
+      return timestamp == NEVER ? Long.MAX_VALUE : timestamp;
+    }
+  }
+}
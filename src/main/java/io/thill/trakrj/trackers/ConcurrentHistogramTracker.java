@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.trackers;
+
+import io.thill.trakrj.Record;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.List;
+
+/**
+ * Tracker to send long values to a histogram directly from producer threads using {@link #recordValue(long)}, without passing through the conductor's ring
+ * buffer. Values are recorded wait-free into an HdrHistogram {@link Recorder}. At each log, the recorder's interval histogram is swapped out and added to the
+ * histogram that is logged. Values recorded using {@link io.thill.trakrj.Stats} are also supported. A scheduled reset clears the logged histogram and keeps
+ * any values recorded since the last log for the next interval. An on-demand reset also discards the values still held by the recorder, so values recorded
+ * before it never appear after it.
+ *
+ * @author Eric Thill
+ */
+public class ConcurrentHistogramTracker extends HistogramTracker {
+
+  private final Recorder recorder;
+  private final Histogram interval;
+  private final Histogram accumulated;
+
+  /**
+   * Instantiate the underlying histograms with numberOfSignificantValueDigits=3 and use percentiles=[0.0, 50.0, 90.0, 99.0, 99.9, 100.0]
+   */
+  public ConcurrentHistogramTracker() {
+    this(3, DEFAULT_PERCENTILES);
+  }
+
+  /**
+   * Instantiate the underlying histograms with numberOfSignificantValueDigits=3 and use the given percentiles
+   *
+   * @param percentiles The percentiles to log. 0=minValue and 100=maxValue
+   */
+  public ConcurrentHistogramTracker(List<Double> percentiles) {
+    this(3, percentiles);
+  }
+
+  /**
+   * Instantiate the underlying histograms with the given numberOfSignificantValueDigits and use the given percentiles
+   *
+   * @param numberOfSignificantValueDigits The numberOfSignificantValueDigits passed to the underlying histograms
+   * @param percentiles                    The percentiles to log. 0=minValue and 100=maxValue
+   */
+  public ConcurrentHistogramTracker(int numberOfSignificantValueDigits, List<Double> percentiles) {
+    this(new Recorder(numberOfSignificantValueDigits), new Histogram(numberOfSignificantValueDigits), new Histogram(numberOfSignificantValueDigits),
+            percentiles);
+  }
+
+  /**
+   * Instantiate the underlying histograms with the given arguments and use the given percentiles
+   *
+   * @param highestTrackableValue          The highestTrackableValue passed to the underlying histograms
+   * @param numberOfSignificantValueDigits The numberOfSignificantValueDigits passed to the underlying histograms
+   * @param percentiles                    The percentiles to log. 0=minValue and 100=maxValue
+   */
+  public ConcurrentHistogramTracker(long highestTrackableValue, int numberOfSignificantValueDigits, List<Double> percentiles) {
+    this(new Recorder(highestTrackableValue, numberOfSignificantValueDigits), new Histogram(highestTrackableValue, numberOfSignificantValueDigits),
+            new Histogram(highestTrackableValue, numberOfSignificantValueDigits), percentiles);
+  }
+
+  /**
+   * Instantiate the underlying histograms with the given arguments and use the given percentiles
+   *
+   * @param lowestDiscernibleValue         The lowestDiscernibleValue passed to the underlying histograms
+   * @param highestTrackableValue          The highestTrackableValue passed to the underlying histograms
+   * @param numberOfSignificantValueDigits The numberOfSignificantValueDigits passed to the underlying histograms
+   * @param percentiles                    The percentiles to log. 0=minValue and 100=maxValue
+   */
+  public ConcurrentHistogramTracker(long lowestDiscernibleValue, long highestTrackableValue, int numberOfSignificantValueDigits, List<Double> percentiles) {
+    this(new Recorder(lowestDiscernibleValue, highestTrackableValue, numberOfSignificantValueDigits),
+            new Histogram(lowestDiscernibleValue, highestTrackableValue, numberOfSignificantValueDigits),
+            new Histogram(lowestDiscernibleValue, highestTrackableValue, numberOfSignificantValueDigits), percentiles);
+  }
+
+  private ConcurrentHistogramTracker(Recorder recorder, Histogram interval, Histogram accumulated, List<Double> percentiles) {
+    super(accumulated, percentiles);
+    this.recorder = recorder;
+    this.interval = interval;
+    this.accumulated = accumulated;
+  }
+
+  /**
+   * Record a value on the calling thread. This method is wait-free and may be called by any number of threads concurrently.
+   *
+   * @param value The value to record
+   */
+  public void recordValue(long value) {
+    recorder.recordValue(value);
+  }
+
+  @Override
+  public void record(Record record) {
+    recorder.recordValue(record.getValueLong());
+  }
+
+  @Override
+  public void tick(long timestamp) {
+    recorder.getIntervalHistogramInto(interval);
+    accumulated.add(interval);
+    invalidate();
+  }
+
+  @Override
+  public boolean changedSinceLastLog() {
+    // values recorded directly by producer threads never touch the conductor
+    return interval.getTotalCount() > 0;
+  }
+
+  @Override
+  public void reset() {
+    // values recorded after the last log's swap belong to the next interval
+    recorder.getIntervalHistogramInto(interval);
+    super.reset();
+    accumulated.add(interval);
+    invalidate();
+  }
+
+  @Override
+  public void resetOnDemand() {
+    recorder.getIntervalHistogramInto(interval);
+    interval.reset();
+    super.reset();
+  }
+
+}
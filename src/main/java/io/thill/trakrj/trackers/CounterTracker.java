@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.trackers;
+
+import io.thill.trakrj.Record;
+import io.thill.trakrj.Stat;
+import io.thill.trakrj.Stat.StatKind;
+import io.thill.trakrj.Stat.StatType;
+import io.thill.trakrj.Tracker;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tracker to count a monotonically increasing total. Each record adds valueLong to the total, which should not be negative. The total is cumulative and is
+ * never cleared by a reset, so downstream systems never see a reset as a drop. The amount the total increased by since the previous log is reported as
+ * "delta" alongside the cumulative "total". The stats are marked {@link StatKind#COUNTER} and {@link StatKind#DELTA} so exporters can emit native counter
+ * types. Deltas are measured between logs, so the tracker should be registered with a reset interval of {@link io.thill.trakrj.Intervals#never()} or equal to
+ * its log interval.
+ *
+ * @author Eric Thill
+ */
+public class CounterTracker implements Tracker {
+
+  private final SettableStat totalStat = new SettableStat("total", StatType.LONG, StatKind.COUNTER);
+  private final SettableStat deltaStat = new SettableStat("delta", StatType.LONG, StatKind.DELTA);
+  private final List<Stat> stats = Collections.unmodifiableList(Arrays.asList(totalStat, deltaStat));
+  private long total;
+  private long lastTickTotal;
+  private long delta;
+
+  @Override
+  public void record(Record record) {
+    total += record.getValueLong();
+  }
+
+  @Override
+  public void tick(long timestamp) {
+    delta = total - lastTickTotal;
+    lastTickTotal = total;
+  }
+
+  /**
+   * Does nothing. The total is cumulative and survives resets.
+   */
+  @Override
+  public void reset() {
+
+  }
+
+  /**
+   * Get the cumulative total
+   *
+   * @return The total
+   */
+  public long getTotal() {
+    return total;
+  }
+
+  /**
+   * Get the amount the total increased by between the previous two logs
+   *
+   * @return The delta
+   */
+  public long getDelta() {
+    return delta;
+  }
+
+  @Override
+  public String toString() {
+    return "total=" + total + " delta=" + delta;
+  }
+
+  @Override
+  public List<? extends Stat> stats() {
+    totalStat.setLongValue(total);
+    deltaStat.setLongValue(delta);
+    return stats;
+  }
+}
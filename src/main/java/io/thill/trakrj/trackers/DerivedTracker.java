@@ -0,0 +1,242 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.trackers;
+
+import io.thill.trakrj.Record;
+import io.thill.trakrj.Stat;
+import io.thill.trakrj.Stat.StatType;
+import io.thill.trakrj.StatVisitor;
+import io.thill.trakrj.Tracker;
+import io.thill.trakrj.internal.exception.Exceptions;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * Tracker that derives a single "value" stat from one stat of each of two other trackers, such as a hit ratio from two counters or the difference of two
+ * gauges. Derived trackers receive no records, and records sent to them are ignored with a warning. The referenced trackers must be registered with the same
+ * {@link io.thill.trakrj.Stats} instance, and should be logged and reset at the same intervals as the derived tracker.
+ * <p>
+ * The value is evaluated on the conductor thread the first time the tracker is rendered after each tick, and reused by every render until the next tick. The
+ * conductor logs every due tracker after all of them have been ticked and before any of them are reset, so the inputs reflect the same period. Long stats are
+ * converted to doubles. The value is null when either input stat is missing or null, or when the result is not finite, such as a ratio with a zero denominator.
+ *
+ * @author Eric Thill
+ */
+public class DerivedTracker implements Tracker {
+
+  private final StatLookup left;
+  private final StatLookup right;
+  private final DoubleBinaryOperator function;
+  private final SettableStat valueStat = new SettableStat("value", StatType.DOUBLE);
+  private final List<Stat> stats = Collections.singletonList(valueStat);
+  private double value = Double.NaN;
+  private double lastValue = Double.NaN;
+  private boolean dirty = true;
+  private boolean warned;
+
+  /**
+   * Derive a value from the stats of two trackers
+   *
+   * @param left      The tracker of the left operand
+   * @param leftStat  The name of the left operand's stat
+   * @param right     The tracker of the right operand
+   * @param rightStat The name of the right operand's stat
+   * @param function  The function to apply to the left and right operands
+   */
+  public DerivedTracker(Tracker left, String leftStat, Tracker right, String rightStat, DoubleBinaryOperator function) {
+    if(left == null || right == null || leftStat == null || rightStat == null || function == null) {
+      throw new IllegalArgumentException("Trackers, stat names, and function cannot be null");
+    }
+    this.left = new StatLookup(left, leftStat);
+    this.right = new StatLookup(right, rightStat);
+    this.function = function;
+  }
+
+  /**
+   * Derive the ratio of two stats
+   *
+   * @param numerator       The tracker of the numerator
+   * @param numeratorStat   The name of the numerator's stat
+   * @param denominator     The tracker of the denominator
+   * @param denominatorStat The name of the denominator's stat
+   * @return The derived tracker
+   */
+  public static DerivedTracker ratio(Tracker numerator, String numeratorStat, Tracker denominator, String denominatorStat) {
+    return new DerivedTracker(numerator, numeratorStat, denominator, denominatorStat, (n, d) -> n / d);
+  }
+
+  /**
+   * Derive the ratio of two stats as a percentage
+   *
+   * @param numerator       The tracker of the numerator
+   * @param numeratorStat   The name of the numerator's stat
+   * @param denominator     The tracker of the denominator
+   * @param denominatorStat The name of the denominator's stat
+   * @return The derived tracker
+   */
+  public static DerivedTracker percentage(Tracker numerator, String numeratorStat, Tracker denominator, String denominatorStat) {
+    return new DerivedTracker(numerator, numeratorStat, denominator, denominatorStat, (n, d) -> 100.0 * n / d);
+  }
+
+  /**
+   * Derive the difference of two stats
+   *
+   * @param minuend        The tracker of the value to subtract from
+   * @param minuendStat    The name of the minuend's stat
+   * @param subtrahend     The tracker of the value to subtract
+   * @param subtrahendStat The name of the subtrahend's stat
+   * @return The derived tracker
+   */
+  public static DerivedTracker difference(Tracker minuend, String minuendStat, Tracker subtrahend, String subtrahendStat) {
+    return new DerivedTracker(minuend, minuendStat, subtrahend, subtrahendStat, (m, s) -> m - s);
+  }
+
+  @Override
+  public void record(Record record) {
+    if(!warned) {
+      Exceptions.logWarn("Ignoring records sent to a derived tracker");
+      warned = true;
+    }
+  }
+
+  @Override
+  public void tick(long timestamp) {
+    // the referenced trackers may tick after this one, so evaluate lazily at the first render
+    dirty = true;
+  }
+
+  @Override
+  public void reset() {
+    // derived from other trackers, nothing to reset
+  }
+
+  /**
+   * Get the derived value as of the last tick, evaluating it from the referenced stats if it has not been evaluated since the last tick
+   *
+   * @return The value, or NaN if it is null
+   */
+  public double getValue() {
+    if(dirty) {
+      value = evaluate();
+      dirty = false;
+    }
+    return value;
+  }
+
+  private double evaluate() {
+    final double l = left.lookup();
+    final double r = right.lookup();
+    if(Double.isNaN(l) || Double.isNaN(r)) {
+      return Double.NaN;
+    }
+    final double value = function.applyAsDouble(l, r);
+    return Double.isInfinite(value) ? Double.NaN : value;
+  }
+
+  /**
+   * Derived trackers receive no records, so compare the derived value to the value at the previous log
+   */
+  @Override
+  public boolean changedSinceLastLog() {
+    final double value = getValue();
+    final boolean changed = Double.compare(value, lastValue) != 0;
+    lastValue = value;
+    return changed;
+  }
+
+  @Override
+  public String toString() {
+    final double value = getValue();
+    return Double.isNaN(value) ? "null" : Double.toString(value);
+  }
+
+  @Override
+  public List<? extends Stat> stats() {
+    final double value = getValue();
+    if(Double.isNaN(value)) {
+      valueStat.setNull();
+    } else {
+      valueStat.setDoubleValue(value);
+    }
+    return stats;
+  }
+
+  @Override
+  public void visit(StatVisitor visitor) {
+    final double value = getValue();
+    if(Double.isNaN(value)) {
+      visitor.visitNull(valueStat.name(), StatType.DOUBLE);
+    } else {
+      visitor.visitDouble(valueStat.name(), value);
+    }
+  }
+
+  /**
+   * Finds the value of one stat of a tracker by visiting the tracker, so lookups do not allocate
+   */
+  private static class StatLookup implements StatVisitor {
+    private final Tracker tracker;
+    private final String name;
+    private double value;
+
+    private StatLookup(Tracker tracker, String name) {
+      this.tracker = tracker;
+      this.name = name;
+    }
+
+    private double lookup() {
+      value = Double.NaN;
+      tracker.visit(this);
+      return value;
+    }
+
+    private boolean matches(CharSequence statName) {
+      if(statName.length() != name.length()) {
+        return false;
+      }
+      for(int i = 0; i < name.length(); i++) {
+        if(statName.charAt(i) != name.charAt(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public void visitLong(CharSequence name, long value) {
+      if(matches(name)) {
+        this.value = value;
+      }
+    }
+
+    @Override
+    public void visitDouble(CharSequence name, double value) {
+      if(matches(name)) {
+        this.value = value;
+      }
+    }
+
+    @Override
+    public void visitObject(CharSequence name, Object value) {
+      if(matches(name) && value instanceof Number) {
+        this.value = ((Number)value).doubleValue();
+      }
+    }
+
+    @Override
+    public void visitNull(CharSequence name, StatType type) {
+      // value remains NaN
+    }
+  }
+}
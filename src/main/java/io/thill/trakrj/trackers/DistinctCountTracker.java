@@ -0,0 +1,198 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.trackers;
+
+import io.thill.trakrj.Record;
+import io.thill.trakrj.Stat;
+import io.thill.trakrj.Stat.StatType;
+import io.thill.trakrj.Tracker;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tracker to estimate the number of distinct keys using a HyperLogLog sketch. keyObject is hashed when it is not null, otherwise keyLong is hashed. Object keys
+ * are hashed from {@link Object#hashCode()}, so keys with colliding hash codes are counted once. Memory is fixed at 2^precision bytes regardless of the number
+ * of keys. The estimate has a relative standard error of 1.04/sqrt(2^precision), which is logged as an absolute error bound alongside the estimate. Reset
+ * clears the sketch.
+ *
+ * @author Eric Thill
+ */
+public class DistinctCountTracker implements Tracker {
+
+  public static final int DEFAULT_PRECISION = 14;
+  public static final int MIN_PRECISION = 4;
+  public static final int MAX_PRECISION = 18;
+
+  private final int precision;
+  private final byte[] registers;
+  private final double alphaMM;
+  private final double relativeError;
+  private final SettableStat estimateStat = new SettableStat("estimate", StatType.LONG);
+  private final SettableStat errorStat = new SettableStat("error", StatType.DOUBLE);
+  private final List<Stat> stats = Collections.unmodifiableList(Arrays.asList(estimateStat, errorStat));
+  private boolean dirty = true;
+  private long estimate;
+
+  /**
+   * Instantiate the sketch with precision=14, which uses 16KB and has a relative standard error of 0.81%
+   */
+  public DistinctCountTracker() {
+    this(DEFAULT_PRECISION);
+  }
+
+  /**
+   * Instantiate the sketch with the given precision
+   *
+   * @param precision The number of hash bits used to select a register, between 4 and 18 inclusive
+   */
+  public DistinctCountTracker(int precision) {
+    if(precision < MIN_PRECISION || precision > MAX_PRECISION) {
+      throw new IllegalArgumentException("precision must be between " + MIN_PRECISION + " and " + MAX_PRECISION);
+    }
+    final int m = 1 << precision;
+    this.precision = precision;
+    this.registers = new byte[m];
+    this.alphaMM = alpha(m) * m * m;
+    this.relativeError = 1.04 / Math.sqrt(m);
+  }
+
+  private static double alpha(int m) {
+    switch(m) {
+      case 16:
+        return 0.673;
+      case 32:
+        return 0.697;
+      case 64:
+        return 0.709;
+      default:
+        return 0.7213 / (1 + 1.079 / m);
+    }
+  }
+
+  static long fmix64(long k) {
+    k ^= k >>> 33;
+    k *= 0xff51afd7ed558ccdL;
+    k ^= k >>> 33;
+    k *= 0xc4ceb9fe1a85ec53L;
+    k ^= k >>> 33;
+    return k;
+  }
+
+  @Override
+  public void record(Record record) {
+    final Object keyObject = record.getKeyObject();
+    offerHash(fmix64(keyObject != null ? keyObject.hashCode() : record.getKeyLong()));
+  }
+
+  /**
+   * Add a pre-computed 64-bit hash to the sketch. The hash should be uniformly distributed.
+   *
+   * @param hash The hash
+   */
+  public void offerHash(long hash) {
+    final int index = (int)(hash >>> (64 - precision));
+    // the sentinel bit caps the rank at 64-precision+1 when the remaining bits are all zero
+    final byte rank = (byte)(Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1);
+    if(rank > registers[index]) {
+      registers[index] = rank;
+      dirty = true;
+    }
+  }
+
+  /**
+   * Merge the registers of the given tracker into this tracker. The resulting estimate is the number of distinct keys seen by either tracker.
+   *
+   * @param other The tracker to merge from, which must have the same precision
+   */
+  public void merge(DistinctCountTracker other) {
+    if(other.precision != precision) {
+      throw new IllegalArgumentException("Cannot merge precision " + other.precision + " into precision " + precision);
+    }
+    for(int i = 0; i < registers.length; i++) {
+      if(other.registers[i] > registers[i]) {
+        registers[i] = other.registers[i];
+      }
+    }
+    dirty = true;
+  }
+
+  @Override
+  public void reset() {
+    Arrays.fill(registers, (byte)0);
+    dirty = true;
+  }
+
+  /**
+   * Get the precision of the sketch
+   *
+   * @return The precision
+   */
+  public int getPrecision() {
+    return precision;
+  }
+
+  /**
+   * Get the relative standard error of the sketch, 1.04/sqrt(2^precision)
+   *
+   * @return The relative standard error
+   */
+  public double getRelativeError() {
+    return relativeError;
+  }
+
+  /**
+   * Get the estimated number of distinct keys
+   *
+   * @return The estimate
+   */
+  public long getEstimate() {
+    if(dirty) {
+      estimate = computeEstimate();
+      dirty = false;
+    }
+    return estimate;
+  }
+
+  private long computeEstimate() {
+    double sum = 0;
+    int zeros = 0;
+    for(int i = 0; i < registers.length; i++) {
+      final byte r = registers[i];
+      if(r == 0) {
+        zeros++;
+      }
+      sum += Double.longBitsToDouble((1023L - r) << 52);
+    }
+    final double raw = alphaMM / sum;
+    if(zeros > 0 && raw <= 2.5 * registers.length) {
+      // small range correction: linear counting
+      return Math.round(registers.length * Math.log((double)registers.length / zeros));
+    }
+    return Math.round(raw);
+  }
+
+  @Override
+  public String toString() {
+    final long estimate = getEstimate();
+    return "[ estimate=" + estimate + " error=" + (estimate * relativeError) + " ]";
+  }
+
+  @Override
+  public List<? extends Stat> stats() {
+    final long estimate = getEstimate();
+    estimateStat.setLongValue(estimate);
+    errorStat.setDoubleValue(estimate * relativeError);
+    return stats;
+  }
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.trackers;
+
+import org.HdrHistogram.DoubleHistogram;
+import org.HdrHistogram.DoubleHistogramIterationValue;
+import org.HdrHistogram.DoubleRecordedValuesIterator;
+
+import java.util.List;
+
+/**
+ * The configured percentiles and count of a pair of double histograms, where the negative histogram holds the magnitudes of negative values, computed in a
+ * single pass over each histogram's recorded values.
+ *
+ * @author Eric Thill
+ */
+class DoubleHistogramSnapshot {
+
+  private final double[] percentiles;
+  private final int[] ascending;
+  private final double[] values;
+  private final long[] targetCounts;
+  private final DoubleRecordedValuesIterator positiveIterator;
+  private final DoubleRecordedValuesIterator negativeIterator;
+  private long count;
+
+  DoubleHistogramSnapshot(List<Double> percentiles, DoubleHistogram positive, DoubleHistogram negative) {
+    this.percentiles = new double[percentiles.size()];
+    this.values = new double[percentiles.size()];
+    this.targetCounts = new long[percentiles.size()];
+    for(int i = 0; i < percentiles.size(); i++) {
+      this.percentiles[i] = percentiles.get(i);
+    }
+    this.ascending = HistogramSnapshot.ascendingOrder(this.percentiles);
+    this.positiveIterator = new DoubleRecordedValuesIterator(positive);
+    this.negativeIterator = new DoubleRecordedValuesIterator(negative);
+  }
+
+  /**
+   * @param positiveCount The count of the positive histogram
+   * @param negativeCount The count of the negative histogram
+   * @param min           The min value, reported for the 0th percentile
+   * @param max           The max value, reported for the 100th percentile
+   */
+  void update(long positiveCount, long negativeCount, double min, double max) {
+    count = positiveCount + negativeCount;
+    if(count == 0) {
+      for(int i = 0; i < values.length; i++) {
+        values[i] = 0;
+      }
+      return;
+    }
+
+    // same count-at-percentile calculation as AbstractHistogram.getValueAtPercentile, over the ranks of both histograms
+    int split = 0;
+    for(int i = 0; i < percentiles.length; i++) {
+      final double requested = Math.min(Math.max(Math.nextAfter(percentiles[i], Double.NEGATIVE_INFINITY), 0.0), 100.0);
+      targetCounts[i] = Math.max(1, (long)Math.ceil((requested * count) / 100.0));
+      if(targetCounts[i] <= negativeCount) {
+        split++;
+      }
+    }
+
+    if(split > 0) {
+      // the most negative value has the largest magnitude, so the lowest ranks are found last while iterating magnitudes upwards
+      negativeIterator.reset();
+      int next = split - 1;
+      while(next >= 0 && negativeIterator.hasNext()) {
+        final DoubleHistogramIterationValue v = negativeIterator.next();
+        while(next >= 0 && v.getTotalCountToThisValue() >= negativeCount - targetCounts[ascending[next]] + 1) {
+          values[ascending[next]] = -v.getValueIteratedTo();
+          next--;
+        }
+      }
+    }
+
+    if(split < ascending.length) {
+      positiveIterator.reset();
+      int next = split;
+      while(next < ascending.length && positiveIterator.hasNext()) {
+        final DoubleHistogramIterationValue v = positiveIterator.next();
+        while(next < ascending.length && v.getTotalCountToThisValue() >= targetCounts[ascending[next]] - negativeCount) {
+          values[ascending[next]] = v.getValueIteratedTo();
+          next++;
+        }
+      }
+    }
+
+    // 0 and 100 are always reported as the exact min and max
+    for(int i = 0; i < percentiles.length; i++) {
+      if(percentiles[i] == 0.0) {
+        values[i] = min;
+      } else if(percentiles[i] == 100.0) {
+        values[i] = max;
+      }
+    }
+  }
+
+  double value(int index) {
+    return values[index];
+  }
+
+  long count() {
+    return count;
+  }
+}
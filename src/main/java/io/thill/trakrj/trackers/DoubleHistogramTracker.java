@@ -0,0 +1,197 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.trackers;
+
+import io.thill.trakrj.Record;
+import io.thill.trakrj.Stat;
+import io.thill.trakrj.Stat.StatType;
+import io.thill.trakrj.Tracker;
+import org.HdrHistogram.DoubleHistogram;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static io.thill.trakrj.trackers.HistogramTracker.DEFAULT_PERCENTILES;
+
+/**
+ * Tracker to send all doubleValues to an auto-ranging double histogram. HDR double histograms only accept non-negative values, so negative values are
+ * recorded by their magnitude into a second histogram that is mirrored below zero when percentiles are calculated. Reset clears the histogram records.
+ *
+ * @author Eric Thill
+ */
+public class DoubleHistogramTracker implements Tracker {
+
+  private final DoubleHistogram histogram;
+  private final DoubleHistogram negative;
+  private final List<Double> percentiles;
+  private final List<String> percentilesDisplay;
+  private final List<SettableStat> stats;
+  private final List<Stat> statsUnmodifiable;
+  private final DoubleHistogramSnapshot snapshot;
+  private boolean dirty = true;
+
+  /**
+   * Instantiate the underlying histogram with numberOfSignificantValueDigits=3 and use percentiles=[0.0, 50.0, 90.0, 99.0, 99.9, 100.0]
+   */
+  public DoubleHistogramTracker() {
+    this(3, DEFAULT_PERCENTILES);
+  }
+
+  /**
+   * Instantiate the underlying histogram with numberOfSignificantValueDigits=3 and use the given percentiles
+   *
+   * @param percentiles The percentiles to log. 0=minValue and 100=maxValue
+   */
+  public DoubleHistogramTracker(List<Double> percentiles) {
+    this(3, percentiles);
+  }
+
+  /**
+   * Instantiate the underlying auto-ranging histogram with the given numberOfSignificantValueDigits and use the given percentiles
+   *
+   * @param numberOfSignificantValueDigits The numberOfSignificantValueDigits passed to the underlying histogram
+   * @param percentiles                    The percentiles to log. 0=minValue and 100=maxValue
+   */
+  public DoubleHistogramTracker(int numberOfSignificantValueDigits, List<Double> percentiles) {
+    histogram = new DoubleHistogram(numberOfSignificantValueDigits);
+    negative = new DoubleHistogram(numberOfSignificantValueDigits);
+    this.percentiles = percentiles;
+    this.percentilesDisplay = HistogramTracker.stringifyPercentiles(percentiles);
+    this.stats = createStats(percentilesDisplay);
+    this.statsUnmodifiable = Collections.unmodifiableList(stats);
+    this.snapshot = new DoubleHistogramSnapshot(percentiles, histogram, negative);
+  }
+
+  /**
+   * Instantiate the underlying histogram with the given arguments and use the given percentiles
+   *
+   * @param highestToLowestValueRatio      The highestToLowestValueRatio passed to the underlying histogram
+   * @param numberOfSignificantValueDigits The numberOfSignificantValueDigits passed to the underlying histogram
+   * @param percentiles                    The percentiles to log. 0=minValue and 100=maxValue
+   */
+  public DoubleHistogramTracker(long highestToLowestValueRatio, int numberOfSignificantValueDigits, List<Double> percentiles) {
+    histogram = new DoubleHistogram(highestToLowestValueRatio, numberOfSignificantValueDigits);
+    negative = new DoubleHistogram(highestToLowestValueRatio, numberOfSignificantValueDigits);
+    this.percentiles = percentiles;
+    this.percentilesDisplay = HistogramTracker.stringifyPercentiles(percentiles);
+    this.stats = createStats(percentilesDisplay);
+    this.statsUnmodifiable = Collections.unmodifiableList(stats);
+    this.snapshot = new DoubleHistogramSnapshot(percentiles, histogram, negative);
+  }
+
+  private static List<SettableStat> createStats(List<String> percentilesDisplay) {
+    final List<SettableStat> stats = new ArrayList<>();
+    for(String pctDisplay : percentilesDisplay) {
+      stats.add(new SettableStat(pctDisplay, StatType.DOUBLE));
+    }
+    stats.add(new SettableStat("count", StatType.LONG));
+    return stats;
+  }
+
+  @Override
+  public void record(Record record) {
+    final double value = record.getValueDouble();
+    if(value < 0) {
+      negative.recordValue(-value);
+    } else {
+      histogram.recordValue(value);
+    }
+    dirty = true;
+  }
+
+  @Override
+  public void reset() {
+    histogram.reset();
+    negative.reset();
+    dirty = true;
+  }
+
+  /**
+   * Get the min value in the underlying histogram
+   *
+   * @return The min value
+   */
+  public double getMinValue() {
+    return negative.getTotalCount() > 0 ? -negative.getMaxValue() : histogram.getMinValue();
+  }
+
+  /**
+   * Get the max value in the underlying histogram
+   *
+   * @return The max value
+   */
+  public double getMaxValue() {
+    return histogram.getTotalCount() > 0 || negative.getTotalCount() == 0 ? histogram.getMaxValue() : -negative.getMinValue();
+  }
+
+  /**
+   * Get the value at the given percentile in the underlying histogram
+   *
+   * @param percentile The percentile
+   * @return The value at the given percentile
+   */
+  public double getValueAtPercentile(double percentile) {
+    final long negativeCount = negative.getTotalCount();
+    if(negativeCount == 0) {
+      return histogram.getValueAtPercentile(percentile);
+    }
+    final long positiveCount = histogram.getTotalCount();
+    // same count-at-percentile calculation as AbstractHistogram.getValueAtPercentile, over the ranks of both histograms
+    final double requested = Math.min(Math.max(Math.nextAfter(percentile, Double.NEGATIVE_INFINITY), 0.0), 100.0);
+    final long rank = Math.max(1, (long)Math.ceil((requested * (negativeCount + positiveCount)) / 100.0));
+    if(rank <= negativeCount) {
+      // the most negative value has the largest magnitude, so ranks count down from the top of the mirrored histogram
+      return -negative.getValueAtPercentile(100.0 * (negativeCount - rank + 1) / negativeCount);
+    }
+    return histogram.getValueAtPercentile(100.0 * (rank - negativeCount) / positiveCount);
+  }
+
+  /**
+   * Get the total count of records in the underlying histogram
+   *
+   * @return The total count
+   */
+  public long getTotalCount() {
+    return histogram.getTotalCount() + negative.getTotalCount();
+  }
+
+  private DoubleHistogramSnapshot snapshot() {
+    if(dirty) {
+      snapshot.update(histogram.getTotalCount(), negative.getTotalCount(), getMinValue(), getMaxValue());
+      dirty = false;
+    }
+    return snapshot;
+  }
+
+  @Override
+  public String toString() {
+    final DoubleHistogramSnapshot snapshot = snapshot();
+    final StringBuilder sb = new StringBuilder("[");
+    for(int i = 0; i < percentiles.size(); i++) {
+      sb.append(" ").append(percentilesDisplay.get(i)).append("=").append(snapshot.value(i));
+    }
+    sb.append(" ] count=").append(snapshot.count());
+    return sb.toString();
+  }
+
+  @Override
+  public List<? extends Stat> stats() {
+    final DoubleHistogramSnapshot snapshot = snapshot();
+    for(int i = 0; i < percentiles.size(); i++) {
+      stats.get(i).setDoubleValue(snapshot.value(i));
+    }
+    stats.get(percentiles.size()).setLongValue(snapshot.count());
+    return statsUnmodifiable;
+  }
+
+}
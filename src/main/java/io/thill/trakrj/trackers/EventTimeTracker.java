@@ -0,0 +1,279 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.trackers;
+
+import io.thill.trakrj.Interval;
+import io.thill.trakrj.Record;
+import io.thill.trakrj.Stat;
+import io.thill.trakrj.Stat.StatType;
+import io.thill.trakrj.StatVisitor;
+import io.thill.trakrj.Tracker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Tracker to bucket records into windows by their event timestamp, as given by {@link io.thill.trakrj.Stats#recordAt(io.thill.trakrj.TrackerId, long,
+ * long)}. Each window is backed by its own tracker from the given factory. A window closes once a log timestamp passes the window's end plus the allowed
+ * lateness. Closed windows are logged one per tick in order of their end, so each closed window is logged exactly once, and a tick without a closed window
+ * logs a null window. Records for a window that has already closed, records without an event timestamp, and records too far in the future to fit in an open
+ * window are counted as late. This tracker should be logged at the same interval as its windows, otherwise closed windows will queue up until the open windows
+ * run out of trackers. Reset clears the late count.
+ *
+ * @author Eric Thill
+ */
+public class EventTimeTracker implements Tracker {
+
+  private static final int DEFAULT_MAX_OPEN_WINDOWS = 4;
+
+  private final SettableStat lateStat = new SettableStat("late", StatType.LONG);
+  private final SettableStat windowStat = new SettableStat("window", StatType.LONG);
+  private final List<Window> free = new ArrayList<>();
+  private final List<Window> pending = new ArrayList<>();
+  private final Window[] open;
+  private final long[] boundaries;
+  private final Interval window;
+  private final long allowedLateness;
+  private int numOpen;
+  private int numBoundaries;
+  private long closedBefore = Long.MIN_VALUE;
+  private long windowStart = Long.MAX_VALUE;
+  private long lateBefore = Long.MIN_VALUE;
+  private Window closed;
+  private boolean changed;
+  private long late;
+
+  /**
+   * Track windows of the given interval with up to 4 open windows
+   *
+   * @param factory         Creates the tracker that backs each window. Window trackers are reset and reused once they are no longer logged.
+   * @param window          The interval that defines the window boundaries
+   * @param allowedLateness The number of milliseconds after a window's end that the window will continue to accept records
+   */
+  public EventTimeTracker(Supplier<? extends Tracker> factory, Interval window, long allowedLateness) {
+    this(factory, window, allowedLateness, DEFAULT_MAX_OPEN_WINDOWS);
+  }
+
+  /**
+   * Track windows of the given interval with up to the given number of open windows
+   *
+   * @param factory         Creates the tracker that backs each window. Window trackers are reset and reused once they are no longer logged.
+   * @param window          The interval that defines the window boundaries
+   * @param allowedLateness The number of milliseconds after a window's end that the window will continue to accept records
+   * @param maxOpenWindows  The maximum number of windows that may accept records at once
+   */
+  public EventTimeTracker(Supplier<? extends Tracker> factory, Interval window, long allowedLateness, int maxOpenWindows) {
+    if(maxOpenWindows < 1) {
+      throw new IllegalArgumentException("maxOpenWindows=" + maxOpenWindows + " must be positive");
+    }
+    this.window = window;
+    this.allowedLateness = allowedLateness;
+    this.open = new Window[maxOpenWindows];
+    this.boundaries = new long[maxOpenWindows];
+    // as many window trackers again are needed for the closed windows that are waiting to be logged
+    for(int i = 0; i < maxOpenWindows * 2; i++) {
+      free.add(new Window(factory.get()));
+    }
+  }
+
+  @Override
+  public void record(Record record) {
+    final long timestamp = record.getTimestamp();
+    if(timestamp == Record.NO_TIMESTAMP) {
+      late++;
+      return;
+    }
+    final long end = windowEnd(timestamp);
+    if(end == Interval.NEVER || end <= closedBefore) {
+      late++;
+      return;
+    }
+    final Window w = openWindow(end);
+    if(w == null) {
+      late++;
+      return;
+    }
+    w.tracker.record(record);
+  }
+
+  private long windowEnd(long timestamp) {
+    // fast path: use the boundaries computed at the last tick
+    if(numBoundaries > 0) {
+      if(timestamp < boundaries[0]) {
+        if(timestamp >= windowStart) {
+          return boundaries[0];
+        }
+        if(timestamp <= lateBefore) {
+          return Interval.NEVER;
+        }
+      } else {
+        for(int i = 1; i < numBoundaries; i++) {
+          if(timestamp < boundaries[i]) {
+            return boundaries[i];
+          }
+        }
+      }
+    }
+    // slow path: ask the interval, and remember what was learned about timestamps before the first boundary
+    final long end = window.first(timestamp + 1);
+    if(numBoundaries > 0 && end == boundaries[0]) {
+      windowStart = Math.min(windowStart, timestamp);
+    } else if(end != Interval.NEVER && end <= closedBefore) {
+      lateBefore = Math.max(lateBefore, timestamp);
+    }
+    return end;
+  }
+
+  private Window openWindow(long end) {
+    for(int i = 0; i < numOpen; i++) {
+      if(open[i].end == end) {
+        return open[i];
+      }
+    }
+    if(numOpen == open.length || free.isEmpty()) {
+      return null;
+    }
+    final Window w = free.remove(free.size() - 1);
+    w.end = end;
+    open[numOpen++] = w;
+    return w;
+  }
+
+  @Override
+  public void tick(long timestamp) {
+    closedBefore = timestamp - allowedLateness;
+
+    // the window logged since the last tick has been logged exactly once
+    changed = closed != null;
+    if(closed != null) {
+      release(closed);
+      closed = null;
+    }
+
+    // queue all windows that have passed their allowed lateness in order of their end, then take the oldest one to be logged
+    int remaining = 0;
+    for(int i = 0; i < numOpen; i++) {
+      final Window w = open[i];
+      if(w.end <= closedBefore) {
+        int idx = pending.size();
+        while(idx > 0 && pending.get(idx - 1).end > w.end) {
+          idx--;
+        }
+        pending.add(idx, w);
+      } else {
+        open[remaining++] = w;
+      }
+    }
+    for(int i = remaining; i < numOpen; i++) {
+      open[i] = null;
+    }
+    numOpen = remaining;
+    if(!pending.isEmpty()) {
+      closed = pending.remove(0);
+      changed = true;
+    }
+
+    // compute upcoming boundaries so most records can find their window without calling the interval
+    final long first = window.first(closedBefore + 1);
+    if(numBoundaries == 0 || first != boundaries[0]) {
+      // the start of the first window is usually a previous boundary, otherwise it is learned on the slow path
+      windowStart = Long.MAX_VALUE;
+      for(int i = 0; i < numBoundaries; i++) {
+        if(boundaries[i] < first && window.next(boundaries[i]) == first) {
+          windowStart = boundaries[i];
+        }
+      }
+      numBoundaries = 0;
+      long boundary = first;
+      while(boundary != Interval.NEVER && numBoundaries < boundaries.length) {
+        boundaries[numBoundaries++] = boundary;
+        boundary = window.next(boundary);
+      }
+    }
+  }
+
+  @Override
+  public boolean changedSinceLastLog() {
+    return changed;
+  }
+
+  private void release(Window w) {
+    w.tracker.reset();
+    w.end = Interval.NEVER;
+    free.add(w);
+  }
+
+  @Override
+  public void reset() {
+    late = 0;
+  }
+
+  /**
+   * Get the number of late records since the last reset
+   *
+   * @return The late count
+   */
+  public long getLateCount() {
+    return late;
+  }
+
+  /**
+   * Get the end timestamp of the closed window that is logged at the current tick
+   *
+   * @return The end timestamp, or {@link Interval#NEVER} if no window is being logged
+   */
+  public long getWindowEnd() {
+    return closed == null ? Interval.NEVER : closed.end;
+  }
+
+  @Override
+  public String toString() {
+    if(closed == null) {
+      return "window=null late=" + late;
+    }
+    return "window=" + closed.end + " " + closed.tracker.toString() + " late=" + late;
+  }
+
+  @Override
+  public List<? extends Stat> stats() {
+    final List<Stat> stats = new ArrayList<>();
+    if(closed == null) {
+      stats.add(windowStat.setNull());
+    } else {
+      stats.add(windowStat.setLongValue(closed.end));
+      stats.addAll(closed.tracker.stats());
+    }
+    stats.add(lateStat.setLongValue(late));
+    return stats;
+  }
+
+  @Override
+  public void visit(StatVisitor visitor) {
+    if(closed == null) {
+      visitor.visitNull(windowStat.name(), StatType.LONG);
+    } else {
+      visitor.visitLong(windowStat.name(), closed.end);
+      closed.tracker.visit(visitor);
+    }
+    visitor.visitLong(lateStat.name(), late);
+  }
+
+  private static class Window {
+    private final Tracker tracker;
+    private long end = Interval.NEVER;
+
+    private Window(Tracker tracker) {
+      this.tracker = tracker;
+    }
+  }
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.trackers;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The max size and eviction policy of a bounded map tracker.
+ * <p>
+ * {@link Policy#LRU}: when a new key arrives and the map is full, the least recently updated key is evicted to make room for it.
+ * <p>
+ * {@link Policy#TTL}: keys that have not been updated within the time-to-live are evicted at each log. When a new key arrives and the map is full of live keys,
+ * the record is dropped and counted in the "other" overflow stat. Time is measured in log intervals, so a key's age is only as precise as the tracker's log
+ * interval.
+ *
+ * @author Eric Thill
+ */
+public final class Eviction {
+
+  /**
+   * Eviction policies
+   */
+  public enum Policy {
+    LRU, TTL
+  }
+
+  /**
+   * Bound the map to the given size, evicting the least recently updated key when a new key arrives and the map is full
+   *
+   * @param maxSize The max number of keys in the map
+   * @return The eviction
+   */
+  public static Eviction lru(int maxSize) {
+    return new Eviction(Policy.LRU, maxSize, Long.MAX_VALUE);
+  }
+
+  /**
+   * Bound the map to the given size, evicting keys that have not been updated within the given time-to-live
+   *
+   * @param maxSize The max number of keys in the map
+   * @param ttl     The time-to-live since a key was last updated
+   * @param unit    The unit of ttl
+   * @return The eviction
+   */
+  public static Eviction ttl(int maxSize, long ttl, TimeUnit unit) {
+    if(ttl <= 0) {
+      throw new IllegalArgumentException("ttl must be positive");
+    }
+    return new Eviction(Policy.TTL, maxSize, unit.toMillis(ttl));
+  }
+
+  private final Policy policy;
+  private final int maxSize;
+  private final long ttlMillis;
+
+  private Eviction(Policy policy, int maxSize, long ttlMillis) {
+    if(maxSize < 1) {
+      throw new IllegalArgumentException("maxSize must be positive");
+    }
+    this.policy = policy;
+    this.maxSize = maxSize;
+    this.ttlMillis = ttlMillis;
+  }
+
+  public Policy getPolicy() {
+    return policy;
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public long getTtlMillis() {
+    return ttlMillis;
+  }
+
+  @Override
+  public String toString() {
+    return policy == Policy.LRU ? "LRU(maxSize=" + maxSize + ")" : "TTL(maxSize=" + maxSize + ", ttlMillis=" + ttlMillis + ")";
+  }
+}
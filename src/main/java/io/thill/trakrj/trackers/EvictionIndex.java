@@ -0,0 +1,215 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.trackers;
+
+import io.thill.trakrj.Stat;
+import io.thill.trakrj.Stat.StatType;
+import io.thill.trakrj.StatVisitor;
+
+import java.util.List;
+
+/**
+ * Tracks the recency of the keys of a bounded map tracker in fixed-size slots linked in least-recently-updated order, and decides which keys to evict.
+ * Subclasses map keys to slots and remove evicted keys from the tracker's map.
+ *
+ * @author Eric Thill
+ */
+abstract class EvictionIndex {
+
+  private static final int NIL = -1;
+  private static final long NO_TIME = Long.MIN_VALUE;
+
+  private final Eviction eviction;
+  private final int[] prev;
+  private final int[] next;
+  private final long[] stamps;
+  private final SettableStat evictedStat = new SettableStat("evicted", StatType.LONG);
+  private final SettableStat otherStat = new SettableStat("other", StatType.LONG);
+  private int head = NIL;
+  private int tail = NIL;
+  private int size;
+  private long now = NO_TIME;
+  private long evicted;
+  private boolean expired;
+  private long other;
+
+  EvictionIndex(Eviction eviction) {
+    this.eviction = eviction;
+    this.prev = new int[eviction.getMaxSize()];
+    this.next = new int[eviction.getMaxSize()];
+    this.stamps = new long[eviction.getMaxSize()];
+  }
+
+  /**
+   * Look up the slot of the given key
+   *
+   * @return The slot, or -1 if the key is not in the map
+   */
+  protected abstract int slotOf(long keyBits, Object keyObject);
+
+  /**
+   * Assign the given key to the given slot
+   */
+  protected abstract void assign(int slot, long keyBits, Object keyObject);
+
+  /**
+   * Remove the key in the given slot from this index and from the tracker's map
+   */
+  protected abstract void evict(int slot);
+
+  protected abstract void clearKeys();
+
+  /**
+   * Mark the given key as updated, evicting another key if needed to make room for it
+   *
+   * @return true if the key should be put in the map, false if the record was dropped
+   */
+  final boolean touch(long keyBits, Object keyObject) {
+    int slot = slotOf(keyBits, keyObject);
+    if(slot != NIL) {
+      unlink(slot);
+    } else if(size < stamps.length) {
+      slot = size++;
+      assign(slot, keyBits, keyObject);
+    } else if(eviction.getPolicy() == Eviction.Policy.LRU) {
+      slot = head;
+      unlink(slot);
+      evict(slot);
+      evicted++;
+      assign(slot, keyBits, keyObject);
+    } else {
+      other++;
+      return false;
+    }
+    stamps[slot] = now;
+    linkLast(slot);
+    return true;
+  }
+
+  /**
+   * Evict keys that have outlived the time-to-live
+   */
+  final void tick(long timestamp) {
+    if(eviction.getPolicy() != Eviction.Policy.TTL) {
+      return;
+    }
+    if(now == NO_TIME) {
+      // keys updated before the first log are aged from the first log
+      for(int slot = head; slot != NIL; slot = next[slot]) {
+        stamps[slot] = timestamp;
+      }
+    }
+    now = timestamp;
+    final long expiry = timestamp - eviction.getTtlMillis();
+    expired = head != NIL && stamps[head] <= expiry;
+    while(head != NIL && stamps[head] <= expiry) {
+      final int slot = head;
+      unlink(slot);
+      evict(slot);
+      evicted++;
+      // move the last slot into the vacated slot so slots [0, size) stay in use
+      final int last = --size;
+      if(slot != last) {
+        move(last, slot);
+      }
+    }
+  }
+
+  /**
+   * Check if the last tick evicted any keys
+   */
+  final boolean expiredAtTick() {
+    return expired;
+  }
+
+  private void move(int from, int to) {
+    final int p = prev[from];
+    final int n = next[from];
+    prev[to] = p;
+    next[to] = n;
+    stamps[to] = stamps[from];
+    if(p == NIL) {
+      head = to;
+    } else {
+      next[p] = to;
+    }
+    if(n == NIL) {
+      tail = to;
+    } else {
+      prev[n] = to;
+    }
+    moveKey(from, to);
+  }
+
+  /**
+   * Move the key in the from slot to the to slot
+   */
+  protected abstract void moveKey(int from, int to);
+
+  private void unlink(int slot) {
+    final int p = prev[slot];
+    final int n = next[slot];
+    if(p == NIL) {
+      head = n;
+    } else {
+      next[p] = n;
+    }
+    if(n == NIL) {
+      tail = p;
+    } else {
+      prev[n] = p;
+    }
+  }
+
+  private void linkLast(int slot) {
+    prev[slot] = tail;
+    next[slot] = NIL;
+    if(tail == NIL) {
+      head = slot;
+    } else {
+      next[tail] = slot;
+    }
+    tail = slot;
+  }
+
+  final void clear() {
+    clearKeys();
+    head = NIL;
+    tail = NIL;
+    size = 0;
+    evicted = 0;
+    other = 0;
+  }
+
+  final long getEvicted() {
+    return evicted;
+  }
+
+  final long getOther() {
+    return other;
+  }
+
+  final void addStats(List<Stat> stats) {
+    stats.add(evictedStat.setLongValue(evicted));
+    stats.add(otherStat.setLongValue(other));
+  }
+
+  final void visit(StatVisitor visitor) {
+    visitor.visitLong(evictedStat.name(), evicted);
+    visitor.visitLong(otherStat.name(), other);
+  }
+
+  @Override
+  public String toString() {
+    return "evicted=" + evicted + " other=" + other;
+  }
+}
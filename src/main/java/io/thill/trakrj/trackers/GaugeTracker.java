@@ -0,0 +1,204 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.trackers;
+
+import io.thill.trakrj.Interval;
+import io.thill.trakrj.Record;
+import io.thill.trakrj.Stat;
+import io.thill.trakrj.Stat.StatType;
+import io.thill.trakrj.Tracker;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Tracker to poll a value from a {@link LongSupplier} or {@link DoubleSupplier} on the conductor thread right before each log, so the value costs nothing on
+ * the record path. The supplier must be safe to call from the conductor thread. When constructed with a sample interval, the supplier is also polled at that
+ * cadence between logs and the min and max of the samples since the previous log are logged alongside the value. Records and resets are ignored.
+ *
+ * @author Eric Thill
+ */
+public class GaugeTracker implements Tracker {
+
+  private final LongSupplier longSupplier;
+  private final DoubleSupplier doubleSupplier;
+  private final Interval sampleInterval;
+  private final SettableStat valStat;
+  private final SettableStat minStat;
+  private final SettableStat maxStat;
+  private final List<Stat> stats;
+  private boolean sampled;
+  private boolean changed;
+  private long longValue;
+  private long longMin;
+  private long longMax;
+  private double doubleValue;
+  private double doubleMin;
+  private double doubleMax;
+  private boolean windowSampled;
+  private long windowLongMin;
+  private long windowLongMax;
+  private double windowDoubleMin;
+  private double windowDoubleMax;
+
+  /**
+   * Poll the given supplier once per log
+   *
+   * @param supplier The supplier of the gauge value
+   */
+  public GaugeTracker(LongSupplier supplier) {
+    this(supplier, null, null);
+  }
+
+  /**
+   * Poll the given supplier once per log and at the given sample interval, logging the min and max of the samples
+   *
+   * @param supplier       The supplier of the gauge value
+   * @param sampleInterval The interval to sample the supplier at between logs
+   */
+  public GaugeTracker(LongSupplier supplier, Interval sampleInterval) {
+    this(supplier, null, sampleInterval);
+  }
+
+  /**
+   * Poll the given supplier once per log
+   *
+   * @param supplier The supplier of the gauge value
+   */
+  public GaugeTracker(DoubleSupplier supplier) {
+    this(null, supplier, null);
+  }
+
+  /**
+   * Poll the given supplier once per log and at the given sample interval, logging the min and max of the samples
+   *
+   * @param supplier       The supplier of the gauge value
+   * @param sampleInterval The interval to sample the supplier at between logs
+   */
+  public GaugeTracker(DoubleSupplier supplier, Interval sampleInterval) {
+    this(null, supplier, sampleInterval);
+  }
+
+  private GaugeTracker(LongSupplier longSupplier, DoubleSupplier doubleSupplier, Interval sampleInterval) {
+    this.longSupplier = longSupplier;
+    this.doubleSupplier = doubleSupplier;
+    this.sampleInterval = sampleInterval;
+    final StatType type = longSupplier != null ? StatType.LONG : StatType.DOUBLE;
+    this.valStat = new SettableStat("val", type);
+    this.minStat = new SettableStat("min", type);
+    this.maxStat = new SettableStat("max", type);
+    this.stats = Collections.unmodifiableList(sampleInterval == null ? Arrays.asList(valStat) : Arrays.asList(valStat, minStat, maxStat));
+  }
+
+  @Override
+  public Interval sampleInterval() {
+    return sampleInterval;
+  }
+
+  @Override
+  public void sample(long timestamp) {
+    if(longSupplier != null) {
+      final long value = longSupplier.getAsLong();
+      if(!windowSampled || value < windowLongMin) {
+        windowLongMin = value;
+      }
+      if(!windowSampled || value > windowLongMax) {
+        windowLongMax = value;
+      }
+    } else {
+      final double value = doubleSupplier.getAsDouble();
+      if(!windowSampled || value < windowDoubleMin) {
+        windowDoubleMin = value;
+      }
+      if(!windowSampled || value > windowDoubleMax) {
+        windowDoubleMax = value;
+      }
+    }
+    windowSampled = true;
+  }
+
+  @Override
+  public void tick(long timestamp) {
+    if(longSupplier != null) {
+      final long value = longSupplier.getAsLong();
+      final long min = windowSampled ? Math.min(windowLongMin, value) : value;
+      final long max = windowSampled ? Math.max(windowLongMax, value) : value;
+      changed = !sampled || value != longValue || (sampleInterval != null && (min != longMin || max != longMax));
+      longValue = value;
+      if(sampleInterval != null) {
+        longMin = min;
+        longMax = max;
+      }
+    } else {
+      final double value = doubleSupplier.getAsDouble();
+      final double min = windowSampled ? Math.min(windowDoubleMin, value) : value;
+      final double max = windowSampled ? Math.max(windowDoubleMax, value) : value;
+      changed = !sampled || Double.compare(value, doubleValue) != 0
+              || (sampleInterval != null && (Double.compare(min, doubleMin) != 0 || Double.compare(max, doubleMax) != 0));
+      doubleValue = value;
+      if(sampleInterval != null) {
+        doubleMin = min;
+        doubleMax = max;
+      }
+    }
+    windowSampled = false;
+    sampled = true;
+  }
+
+  @Override
+  public boolean changedSinceLastLog() {
+    return changed;
+  }
+
+  @Override
+  public void record(Record record) {
+
+  }
+
+  @Override
+  public void reset() {
+
+  }
+
+  @Override
+  public String toString() {
+    if(!sampled) {
+      return null;
+    }
+    if(longSupplier != null) {
+      return sampleInterval == null ? Long.toString(longValue) : longValue + " min=" + longMin + " max=" + longMax;
+    } else {
+      return sampleInterval == null ? Double.toString(doubleValue) : doubleValue + " min=" + doubleMin + " max=" + doubleMax;
+    }
+  }
+
+  @Override
+  public List<? extends Stat> stats() {
+    if(!sampled) {
+      valStat.setNull();
+      minStat.setNull();
+      maxStat.setNull();
+    } else if(longSupplier != null) {
+      valStat.setLongValue(longValue);
+      minStat.setLongValue(longMin);
+      maxStat.setLongValue(longMax);
+    } else {
+      valStat.setDoubleValue(doubleValue);
+      minStat.setDoubleValue(doubleMin);
+      maxStat.setDoubleValue(doubleMax);
+    }
+    return stats;
+  }
+}
@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.trackers;
+
+import org.HdrHistogram.AbstractHistogram;
+import org.HdrHistogram.HistogramIterationValue;
+import org.HdrHistogram.RecordedValuesIterator;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The configured percentiles, min, max, mean, and count of a histogram, computed in a single pass over the histogram's recorded values.
+ *
+ * @author Eric Thill
+ */
+class HistogramSnapshot {
+
+  private final double[] percentiles;
+  private final int[] ascending;
+  private final long[] values;
+  private final long[] targetCounts;
+  // histograms given to a snapshot are long-lived, so one iterator is kept per histogram and reset for each update
+  private final Map<AbstractHistogram, RecordedValuesIterator> iterators = new IdentityHashMap<>();
+  private long count;
+  private long min;
+  private long max;
+  private double mean;
+
+  HistogramSnapshot(List<Double> percentiles) {
+    this.percentiles = new double[percentiles.size()];
+    this.values = new long[percentiles.size()];
+    this.targetCounts = new long[percentiles.size()];
+    for(int i = 0; i < percentiles.size(); i++) {
+      this.percentiles[i] = percentiles.get(i);
+    }
+    this.ascending = ascendingOrder(this.percentiles);
+  }
+
+  static int[] ascendingOrder(double[] percentiles) {
+    final int[] order = new int[percentiles.length];
+    for(int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    // insertion sort, percentile lists are short and are only sorted once
+    for(int i = 1; i < order.length; i++) {
+      final int idx = order[i];
+      int j = i - 1;
+      while(j >= 0 && percentiles[order[j]] > percentiles[idx]) {
+        order[j + 1] = order[j];
+        j--;
+      }
+      order[j + 1] = idx;
+    }
+    return order;
+  }
+
+  void update(AbstractHistogram histogram) {
+    count = histogram.getTotalCount();
+    if(count == 0) {
+      min = 0;
+      max = 0;
+      mean = 0;
+      for(int i = 0; i < values.length; i++) {
+        values[i] = 0;
+      }
+      return;
+    }
+    min = histogram.getMinValue();
+    max = histogram.getMaxValue();
+
+    // same count-at-percentile calculation as AbstractHistogram.getValueAtPercentile
+    for(int i = 0; i < percentiles.length; i++) {
+      final double requested = Math.min(Math.max(Math.nextAfter(percentiles[i], Double.NEGATIVE_INFINITY), 0.0), 100.0);
+      targetCounts[i] = Math.max(1, (long)Math.ceil((requested * count) / 100.0));
+    }
+
+    RecordedValuesIterator iterator = iterators.get(histogram);
+    if(iterator == null) {
+      iterator = new RecordedValuesIterator(histogram);
+      iterators.put(histogram, iterator);
+    } else {
+      iterator.reset();
+    }
+
+    int next = 0;
+    double total = 0;
+    while(iterator.hasNext()) {
+      final HistogramIterationValue v = iterator.next();
+      final long valueIteratedTo = v.getValueIteratedTo();
+      total += histogram.medianEquivalentValue(valueIteratedTo) * (double)v.getCountAtValueIteratedTo();
+      while(next < ascending.length && v.getTotalCountToThisValue() >= targetCounts[ascending[next]]) {
+        final int idx = ascending[next];
+        values[idx] = percentiles[idx] == 0.0 ? histogram.lowestEquivalentValue(valueIteratedTo) : valueIteratedTo;
+        next++;
+      }
+    }
+    mean = total / count;
+
+    // 0 and 100 are always reported as the exact min and max
+    for(int i = 0; i < percentiles.length; i++) {
+      if(percentiles[i] == 0.0) {
+        values[i] = min;
+      } else if(percentiles[i] == 100.0) {
+        values[i] = max;
+      }
+    }
+  }
+
+  long value(int index) {
+    return values[index];
+  }
+
+  long count() {
+    return count;
+  }
+
+  long min() {
+    return min;
+  }
+
+  long max() {
+    return max;
+  }
+
+  double mean() {
+    return mean;
+  }
+}
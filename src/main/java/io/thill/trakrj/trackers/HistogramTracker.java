@@ -32,8 +32,11 @@ public class HistogramTracker implements Tracker {
   public static final List<Double> DEFAULT_PERCENTILES = Collections
           .unmodifiableList(Arrays.asList(0.0, 50.0, 90.0, 99.0, 99.9, 100.0));
   private final Histogram histogram;
-  private final List<Double> percentiles;
   private final List<String> percentilesDisplay;
+  private final HistogramSnapshot snapshot;
+  private final List<SettableStat> stats;
+  private final List<Stat> statsUnmodifiable;
+  private boolean dirty = true;
 
   /**
    * Instantiate the underlying histogram with numberOfSignificantValueDigits=3 and use percentiles=[0.0, 50.0, 90.0, 99.0, 99.9, 100.0]
@@ -59,8 +62,10 @@ public class HistogramTracker implements Tracker {
    */
   public HistogramTracker(int numberOfSignificantValueDigits, List<Double> percentiles) {
     histogram = new Histogram(numberOfSignificantValueDigits);
-    this.percentiles = percentiles;
     this.percentilesDisplay = stringifyPercentiles(percentiles);
+    this.snapshot = new HistogramSnapshot(percentiles);
+    this.stats = createStats(percentilesDisplay);
+    this.statsUnmodifiable = Collections.unmodifiableList(stats);
   }
 
   /**
@@ -72,8 +77,10 @@ public class HistogramTracker implements Tracker {
    */
   public HistogramTracker(long highestTrackableValue, int numberOfSignificantValueDigits, List<Double> percentiles) {
     histogram = new Histogram(highestTrackableValue, numberOfSignificantValueDigits);
-    this.percentiles = percentiles;
     this.percentilesDisplay = stringifyPercentiles(percentiles);
+    this.snapshot = new HistogramSnapshot(percentiles);
+    this.stats = createStats(percentilesDisplay);
+    this.statsUnmodifiable = Collections.unmodifiableList(stats);
   }
 
   /**
@@ -87,11 +94,27 @@ public class HistogramTracker implements Tracker {
   public HistogramTracker(long lowestDiscernibleValue, long highestTrackableValue, int numberOfSignificantValueDigits,
                           List<Double> percentiles) {
     histogram = new Histogram(lowestDiscernibleValue, highestTrackableValue, numberOfSignificantValueDigits);
-    this.percentiles = percentiles;
     this.percentilesDisplay = stringifyPercentiles(percentiles);
+    this.snapshot = new HistogramSnapshot(percentiles);
+    this.stats = createStats(percentilesDisplay);
+    this.statsUnmodifiable = Collections.unmodifiableList(stats);
   }
 
-  private static List<String> stringifyPercentiles(List<Double> percentiles) {
+  /**
+   * Use the given histogram and percentiles. The given histogram will be used to render this tracker's state.
+   *
+   * @param histogram   The underlying histogram
+   * @param percentiles The percentiles to log. 0=minValue and 100=maxValue
+   */
+  protected HistogramTracker(Histogram histogram, List<Double> percentiles) {
+    this.histogram = histogram;
+    this.percentilesDisplay = stringifyPercentiles(percentiles);
+    this.snapshot = new HistogramSnapshot(percentiles);
+    this.stats = createStats(percentilesDisplay);
+    this.statsUnmodifiable = Collections.unmodifiableList(stats);
+  }
+
+  static List<String> stringifyPercentiles(List<Double> percentiles) {
     List<String> strings = new ArrayList<>();
     for(Double d : percentiles) {
       String s = String.valueOf(d);
@@ -103,14 +126,41 @@ public class HistogramTracker implements Tracker {
     return strings;
   }
 
+  private static List<SettableStat> createStats(List<String> percentilesDisplay) {
+    final List<SettableStat> stats = new ArrayList<>();
+    for(String pctDisplay : percentilesDisplay) {
+      stats.add(new SettableStat(pctDisplay, StatType.LONG));
+    }
+    stats.add(new SettableStat("count", StatType.LONG));
+    return stats;
+  }
+
   @Override
   public void record(Record record) {
     histogram.recordValue(record.getValueLong());
+    dirty = true;
   }
 
   @Override
   public void reset() {
     histogram.reset();
+    dirty = true;
+  }
+
+  /**
+   * Mark the cached percentiles as stale. Subclasses that modify the underlying histogram outside of {@link #record(Record)} and {@link #reset()} must call
+   * this method.
+   */
+  protected void invalidate() {
+    dirty = true;
+  }
+
+  private HistogramSnapshot snapshot() {
+    if(dirty) {
+      snapshot.update(histogram);
+      dirty = false;
+    }
+    return snapshot;
   }
 
   /**
@@ -131,6 +181,15 @@ public class HistogramTracker implements Tracker {
     return histogram.getMaxValue();
   }
 
+  /**
+   * Get the mean value in the underlying histogram
+   *
+   * @return The mean value
+   */
+  public double getMean() {
+    return snapshot().mean();
+  }
+
   /**
    * Get the value at the given percentile in the underlying histogram
    *
@@ -152,58 +211,23 @@ public class HistogramTracker implements Tracker {
 
   @Override
   public String toString() {
-    final long count = histogram.getTotalCount();
+    final HistogramSnapshot snapshot = snapshot();
     final StringBuilder sb = new StringBuilder("[");
-    if(count == 0) {
-      for(int i = 0; i < percentiles.size(); i++) {
-        final String pctDisplay = percentilesDisplay.get(i);
-        sb.append(" ").append(pctDisplay).append("=").append(0);
-      }
-    } else {
-      for(int i = 0; i < percentiles.size(); i++) {
-        double pct = percentiles.get(i);
-        String pctDisplay = percentilesDisplay.get(i);
-        long val;
-        if(pct == 0.0) {
-          val = histogram.getMinValue();
-        } else if(pct == 100.0) {
-          val = histogram.getMaxValue();
-        } else {
-          val = histogram.getValueAtPercentile(pct);
-        }
-        sb.append(" ").append(pctDisplay).append("=").append(val);
-      }
+    for(int i = 0; i < percentilesDisplay.size(); i++) {
+      sb.append(" ").append(percentilesDisplay.get(i)).append("=").append(snapshot.value(i));
     }
-    sb.append(" ] count=").append(count);
+    sb.append(" ] count=").append(snapshot.count());
     return sb.toString();
   }
 
   @Override
   public List<? extends Stat> stats() {
-    final long count = histogram.getTotalCount();
-    final List<Stat> stats = new ArrayList<>();
-    if(count == 0) {
-      for(int i = 0; i < percentiles.size(); i++) {
-        final String pctDisplay = percentilesDisplay.get(i);
-        stats.add(new SettableStat(pctDisplay, StatType.LONG).setLongValue(0));
-      }
-    } else {
-      for(int i = 0; i < percentiles.size(); i++) {
-        double pct = percentiles.get(i);
-        String pctDisplay = percentilesDisplay.get(i);
-        long val;
-        if(pct == 0.0) {
-          val = histogram.getMinValue();
-        } else if(pct == 100.0) {
-          val = histogram.getMaxValue();
-        } else {
-          val = histogram.getValueAtPercentile(pct);
-        }
-        stats.add(new SettableStat(pctDisplay, StatType.LONG).setLongValue(val));
-      }
+    final HistogramSnapshot snapshot = snapshot();
+    for(int i = 0; i < percentilesDisplay.size(); i++) {
+      stats.get(i).setLongValue(snapshot.value(i));
     }
-    stats.add(new SettableStat("count", StatType.LONG).setLongValue(count));
-    return stats;
+    stats.get(percentilesDisplay.size()).setLongValue(snapshot.count());
+    return statsUnmodifiable;
   }
 
 }
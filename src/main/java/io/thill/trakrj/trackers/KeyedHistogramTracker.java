@@ -0,0 +1,295 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.trackers;
+
+import io.thill.trakrj.Record;
+import io.thill.trakrj.Stat;
+import io.thill.trakrj.Stat.StatType;
+import io.thill.trakrj.StatVisitor;
+import io.thill.trakrj.Tracker;
+import org.HdrHistogram.Histogram;
+import org.eclipse.collections.api.block.procedure.primitive.LongObjectProcedure;
+import org.eclipse.collections.api.map.primitive.MutableLongObjectMap;
+import org.eclipse.collections.impl.factory.primitive.LongObjectMaps;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import static io.thill.trakrj.trackers.HistogramTracker.DEFAULT_PERCENTILES;
+
+/**
+ * Tracker to keep a histogram of long values per key. keyObject is used as the key when it is not null, otherwise keyLong is used as the key, and valueLong
+ * is recorded. Histograms are created lazily the first time a key is seen, up to maxKeys. Records for keys beyond maxKeys are recorded into a shared "other"
+ * histogram. Every record is also recorded into an "all" histogram covering all keys. Stats are named "key.percentile" and "key.count". The percentiles of each
+ * key are cached until the key is recorded to or reset, so rendering the same interval more than once does not walk every histogram again. Reset clears all
+ * keys and returns their histograms to a pool to be reused by the next interval's keys.
+ *
+ * @author Eric Thill
+ */
+public class KeyedHistogramTracker implements Tracker {
+
+  private static final String ALL = "all";
+  private static final String OTHER = "other";
+
+  private final int maxKeys;
+  private final Supplier<Histogram> histogramFactory;
+  private final List<String> percentilesDisplay;
+  private final HistogramSnapshot snapshot;
+  private final Map<Object, KeyHistogram> objectHistograms = new LinkedHashMap<>();
+  private final MutableLongObjectMap<KeyHistogram> longHistograms = LongObjectMaps.mutable.empty();
+  private final ArrayDeque<KeyHistogram> pool = new ArrayDeque<>();
+  private final KeyHistogram all;
+  private final KeyHistogram other;
+  private final StringBuilder statName = new StringBuilder();
+  private StatVisitor visitor;
+  private final BiConsumer<Object, KeyHistogram> visitObjectKey = (k, h) -> visitHistogram(statName.append(k), h);
+  private final LongObjectProcedure<KeyHistogram> visitLongKey = (k, h) -> visitHistogram(statName.append(k), h);
+
+  /**
+   * Instantiate the underlying histograms with numberOfSignificantValueDigits=3 and use percentiles=[0.0, 50.0, 90.0, 99.0, 99.9, 100.0]
+   *
+   * @param maxKeys The max number of keys to keep a histogram for
+   */
+  public KeyedHistogramTracker(int maxKeys) {
+    this(maxKeys, 3, DEFAULT_PERCENTILES);
+  }
+
+  /**
+   * Instantiate the underlying histograms with numberOfSignificantValueDigits=3 and use the given percentiles
+   *
+   * @param maxKeys     The max number of keys to keep a histogram for
+   * @param percentiles The percentiles to log. 0=minValue and 100=maxValue
+   */
+  public KeyedHistogramTracker(int maxKeys, List<Double> percentiles) {
+    this(maxKeys, 3, percentiles);
+  }
+
+  /**
+   * Instantiate the underlying histograms with the given numberOfSignificantValueDigits and use the given percentiles
+   *
+   * @param maxKeys                        The max number of keys to keep a histogram for
+   * @param numberOfSignificantValueDigits The numberOfSignificantValueDigits passed to the underlying histograms
+   * @param percentiles                    The percentiles to log. 0=minValue and 100=maxValue
+   */
+  public KeyedHistogramTracker(int maxKeys, int numberOfSignificantValueDigits, List<Double> percentiles) {
+    this(maxKeys, () -> new Histogram(numberOfSignificantValueDigits), percentiles);
+  }
+
+  /**
+   * Instantiate the underlying histograms with the given arguments and use the given percentiles
+   *
+   * @param maxKeys                        The max number of keys to keep a histogram for
+   * @param highestTrackableValue          The highestTrackableValue passed to the underlying histograms
+   * @param numberOfSignificantValueDigits The numberOfSignificantValueDigits passed to the underlying histograms
+   * @param percentiles                    The percentiles to log. 0=minValue and 100=maxValue
+   */
+  public KeyedHistogramTracker(int maxKeys, long highestTrackableValue, int numberOfSignificantValueDigits, List<Double> percentiles) {
+    this(maxKeys, () -> new Histogram(highestTrackableValue, numberOfSignificantValueDigits), percentiles);
+  }
+
+  private KeyedHistogramTracker(int maxKeys, Supplier<Histogram> histogramFactory, List<Double> percentiles) {
+    if(maxKeys < 1) {
+      throw new IllegalArgumentException("maxKeys must be positive");
+    }
+    this.maxKeys = maxKeys;
+    this.histogramFactory = histogramFactory;
+    this.percentilesDisplay = HistogramTracker.stringifyPercentiles(percentiles);
+    this.snapshot = new HistogramSnapshot(percentiles);
+    this.all = newKeyHistogram();
+    this.other = newKeyHistogram();
+  }
+
+  @Override
+  public void record(Record record) {
+    final long value = record.getValueLong();
+    all.record(value);
+    final Object keyObject = record.getKeyObject();
+    KeyHistogram histogram;
+    if(keyObject != null) {
+      histogram = objectHistograms.get(keyObject);
+      if(histogram == null && hasCapacity()) {
+        histogram = borrow();
+        objectHistograms.put(keyObject, histogram);
+      }
+    } else {
+      final long keyLong = record.getKeyLong();
+      histogram = longHistograms.get(keyLong);
+      if(histogram == null && hasCapacity()) {
+        histogram = borrow();
+        longHistograms.put(keyLong, histogram);
+      }
+    }
+    (histogram != null ? histogram : other).record(value);
+  }
+
+  private boolean hasCapacity() {
+    return objectHistograms.size() + longHistograms.size() < maxKeys;
+  }
+
+  private KeyHistogram borrow() {
+    final KeyHistogram histogram = pool.poll();
+    return histogram != null ? histogram : newKeyHistogram();
+  }
+
+  private KeyHistogram newKeyHistogram() {
+    return new KeyHistogram(histogramFactory.get(), percentilesDisplay.size());
+  }
+
+  @Override
+  public void reset() {
+    for(KeyHistogram histogram : objectHistograms.values()) {
+      histogram.reset();
+      pool.add(histogram);
+    }
+    longHistograms.forEachValue(histogram -> {
+      histogram.reset();
+      pool.add(histogram);
+    });
+    objectHistograms.clear();
+    longHistograms.clear();
+    all.reset();
+    other.reset();
+  }
+
+  /**
+   * Get the number of keys with their own histogram
+   *
+   * @return The number of keys
+   */
+  public int getKeyCount() {
+    return objectHistograms.size() + longHistograms.size();
+  }
+
+  /**
+   * Get the total count of records across all keys
+   *
+   * @return The total count
+   */
+  public long getTotalCount() {
+    return all.histogram.getTotalCount();
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder sb = new StringBuilder("{");
+    append(sb, ALL, all);
+    for(Map.Entry<Object, KeyHistogram> e : objectHistograms.entrySet()) {
+      append(sb.append(", "), e.getKey().toString(), e.getValue());
+    }
+    longHistograms.forEachKeyValue((k, h) -> append(sb.append(", "), Long.toString(k), h));
+    if(other.histogram.getTotalCount() > 0) {
+      append(sb.append(", "), OTHER, other);
+    }
+    return sb.append("}").toString();
+  }
+
+  private void append(StringBuilder sb, String key, KeyHistogram histogram) {
+    histogram.update(snapshot);
+    sb.append(key).append("=[");
+    for(int i = 0; i < percentilesDisplay.size(); i++) {
+      sb.append(" ").append(percentilesDisplay.get(i)).append("=").append(histogram.values[i]);
+    }
+    sb.append(" ] count=").append(histogram.count);
+  }
+
+  @Override
+  public List<? extends Stat> stats() {
+    final List<Stat> stats = new ArrayList<>();
+    addStats(stats, ALL, all);
+    for(Map.Entry<Object, KeyHistogram> e : objectHistograms.entrySet()) {
+      addStats(stats, e.getKey().toString(), e.getValue());
+    }
+    longHistograms.forEachKeyValue((k, h) -> addStats(stats, Long.toString(k), h));
+    if(other.histogram.getTotalCount() > 0) {
+      addStats(stats, OTHER, other);
+    }
+    return stats;
+  }
+
+  private void addStats(List<Stat> stats, String key, KeyHistogram histogram) {
+    histogram.update(snapshot);
+    for(int i = 0; i < percentilesDisplay.size(); i++) {
+      stats.add(new SettableStat(key + "." + percentilesDisplay.get(i), StatType.LONG).setLongValue(histogram.values[i]));
+    }
+    stats.add(new SettableStat(key + ".count", StatType.LONG).setLongValue(histogram.count));
+  }
+
+  @Override
+  public void visit(StatVisitor visitor) {
+    this.visitor = visitor;
+    try {
+      visitHistogram(statName.append(ALL), all);
+      objectHistograms.forEach(visitObjectKey);
+      longHistograms.forEachKeyValue(visitLongKey);
+      if(other.histogram.getTotalCount() > 0) {
+        visitHistogram(statName.append(OTHER), other);
+      }
+    } finally {
+      this.visitor = null;
+      statName.setLength(0);
+    }
+  }
+
+  private void visitHistogram(StringBuilder key, KeyHistogram histogram) {
+    histogram.update(snapshot);
+    final int keyLength = key.append('.').length();
+    for(int i = 0; i < percentilesDisplay.size(); i++) {
+      key.setLength(keyLength);
+      visitor.visitLong(key.append(percentilesDisplay.get(i)), histogram.values[i]);
+    }
+    key.setLength(keyLength);
+    visitor.visitLong(key.append("count"), histogram.count);
+    key.setLength(0);
+  }
+
+  /**
+   * A key's histogram along with its percentiles as of the last render, which stay valid until the histogram is recorded to or reset
+   */
+  private static class KeyHistogram {
+    private final Histogram histogram;
+    private final long[] values;
+    private long count;
+    private boolean dirty = true;
+
+    private KeyHistogram(Histogram histogram, int numPercentiles) {
+      this.histogram = histogram;
+      this.values = new long[numPercentiles];
+    }
+
+    private void record(long value) {
+      histogram.recordValue(value);
+      dirty = true;
+    }
+
+    private void reset() {
+      histogram.reset();
+      dirty = true;
+    }
+
+    private void update(HistogramSnapshot snapshot) {
+      if(!dirty) {
+        return;
+      }
+      snapshot.update(histogram);
+      for(int i = 0; i < values.length; i++) {
+        values[i] = snapshot.value(i);
+      }
+      count = snapshot.count();
+      dirty = false;
+    }
+  }
+}
@@ -0,0 +1,190 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.trackers;
+
+import io.thill.trakrj.Record;
+import io.thill.trakrj.Stat;
+import io.thill.trakrj.Stat.StatType;
+import io.thill.trakrj.Tracker;
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static io.thill.trakrj.trackers.HistogramTracker.DEFAULT_PERCENTILES;
+
+/**
+ * Tracker to send long latency values to a raw histogram and to a histogram corrected for coordinated omission. When a value is larger than the expected
+ * interval between samples, the corrected histogram is also given the values of the samples that would have been taken during the stall, using
+ * {@link Histogram#recordValueWithExpectedInterval(long, long)}. Raw and corrected percentiles are logged side by side as "raw.percentile" and
+ * "corrected.percentile". The expected interval must be in the same unit as the recorded values. Reset clears both histograms.
+ *
+ * @author Eric Thill
+ */
+public class LatencyTracker implements Tracker {
+
+  private final long expectedInterval;
+  private final Histogram raw;
+  private final Histogram corrected;
+  private final List<String> percentilesDisplay;
+  private final HistogramSnapshot rawSnapshot;
+  private final HistogramSnapshot correctedSnapshot;
+  private final List<SettableStat> stats = new ArrayList<>();
+  private final List<Stat> statsUnmodifiable = Collections.unmodifiableList(stats);
+  private boolean dirty = true;
+
+  /**
+   * Instantiate the underlying histograms with numberOfSignificantValueDigits=3 and use percentiles=[0.0, 50.0, 90.0, 99.0, 99.9, 100.0]
+   *
+   * @param expectedInterval The expected interval between value samples, in the unit of the recorded values
+   */
+  public LatencyTracker(long expectedInterval) {
+    this(expectedInterval, new Histogram(3), new Histogram(3), DEFAULT_PERCENTILES);
+  }
+
+  /**
+   * Instantiate the underlying histograms with numberOfSignificantValueDigits=3 and use the given percentiles
+   *
+   * @param expectedInterval The expected interval between value samples, in the unit of the recorded values
+   * @param percentiles      The percentiles to log. 0=minValue and 100=maxValue
+   */
+  public LatencyTracker(long expectedInterval, List<Double> percentiles) {
+    this(expectedInterval, new Histogram(3), new Histogram(3), percentiles);
+  }
+
+  /**
+   * Instantiate the underlying histograms with the given numberOfSignificantValueDigits and use the given percentiles
+   *
+   * @param expectedInterval               The expected interval between value samples, in the unit of the recorded values
+   * @param numberOfSignificantValueDigits The numberOfSignificantValueDigits passed to the underlying histograms
+   * @param percentiles                    The percentiles to log. 0=minValue and 100=maxValue
+   */
+  public LatencyTracker(long expectedInterval, int numberOfSignificantValueDigits, List<Double> percentiles) {
+    this(expectedInterval, new Histogram(numberOfSignificantValueDigits), new Histogram(numberOfSignificantValueDigits), percentiles);
+  }
+
+  /**
+   * Instantiate the underlying histograms with the given arguments and use the given percentiles
+   *
+   * @param expectedInterval               The expected interval between value samples, in the unit of the recorded values
+   * @param highestTrackableValue          The highestTrackableValue passed to the underlying histograms
+   * @param numberOfSignificantValueDigits The numberOfSignificantValueDigits passed to the underlying histograms
+   * @param percentiles                    The percentiles to log. 0=minValue and 100=maxValue
+   */
+  public LatencyTracker(long expectedInterval, long highestTrackableValue, int numberOfSignificantValueDigits, List<Double> percentiles) {
+    this(expectedInterval, new Histogram(highestTrackableValue, numberOfSignificantValueDigits),
+            new Histogram(highestTrackableValue, numberOfSignificantValueDigits), percentiles);
+  }
+
+  private LatencyTracker(long expectedInterval, Histogram raw, Histogram corrected, List<Double> percentiles) {
+    if(expectedInterval <= 0) {
+      throw new IllegalArgumentException("expectedInterval must be positive");
+    }
+    this.expectedInterval = expectedInterval;
+    this.raw = raw;
+    this.corrected = corrected;
+    this.percentilesDisplay = HistogramTracker.stringifyPercentiles(percentiles);
+    this.rawSnapshot = new HistogramSnapshot(percentiles);
+    this.correctedSnapshot = new HistogramSnapshot(percentiles);
+    addStats("raw.");
+    addStats("corrected.");
+  }
+
+  private void addStats(String prefix) {
+    for(String pctDisplay : percentilesDisplay) {
+      stats.add(new SettableStat(prefix + pctDisplay, StatType.LONG));
+    }
+    stats.add(new SettableStat(prefix + "count", StatType.LONG));
+  }
+
+  @Override
+  public void record(Record record) {
+    final long value = record.getValueLong();
+    raw.recordValue(value);
+    corrected.recordValueWithExpectedInterval(value, expectedInterval);
+    dirty = true;
+  }
+
+  @Override
+  public void reset() {
+    raw.reset();
+    corrected.reset();
+    dirty = true;
+  }
+
+  /**
+   * Get the expected interval between value samples
+   *
+   * @return The expected interval
+   */
+  public long getExpectedInterval() {
+    return expectedInterval;
+  }
+
+  /**
+   * Get the value at the given percentile in the raw histogram
+   *
+   * @param percentile The percentile
+   * @return The value at the given percentile
+   */
+  public long getRawValueAtPercentile(double percentile) {
+    return raw.getValueAtPercentile(percentile);
+  }
+
+  /**
+   * Get the value at the given percentile in the histogram corrected for coordinated omission
+   *
+   * @param percentile The percentile
+   * @return The value at the given percentile
+   */
+  public long getCorrectedValueAtPercentile(double percentile) {
+    return corrected.getValueAtPercentile(percentile);
+  }
+
+  private void updateSnapshots() {
+    if(dirty) {
+      rawSnapshot.update(raw);
+      correctedSnapshot.update(corrected);
+      dirty = false;
+    }
+  }
+
+  @Override
+  public String toString() {
+    updateSnapshots();
+    final StringBuilder sb = new StringBuilder();
+    append(sb.append("raw=["), rawSnapshot);
+    append(sb.append(" corrected=["), correctedSnapshot);
+    return sb.toString();
+  }
+
+  private void append(StringBuilder sb, HistogramSnapshot snapshot) {
+    for(int i = 0; i < percentilesDisplay.size(); i++) {
+      sb.append(" ").append(percentilesDisplay.get(i)).append("=").append(snapshot.value(i));
+    }
+    sb.append(" ] count=").append(snapshot.count());
+  }
+
+  @Override
+  public List<? extends Stat> stats() {
+    updateSnapshots();
+    final int size = percentilesDisplay.size();
+    for(int i = 0; i < size; i++) {
+      stats.get(i).setLongValue(rawSnapshot.value(i));
+      stats.get(size + 1 + i).setLongValue(correctedSnapshot.value(i));
+    }
+    stats.get(size).setLongValue(rawSnapshot.count());
+    stats.get(2 * size + 1).setLongValue(correctedSnapshot.count());
+    return statsUnmodifiable;
+  }
+}
@@ -107,7 +107,7 @@ public class LongArrayTracker implements Tracker {
   public List<Stat> stats() {
     if(stats.size() == 0) {
       for(int i = 0; i < array.length; i++) {
-        stats.add(new SettableStat(Integer.toString(i), StatType.DOUBLE));
+        stats.add(new SettableStat(Integer.toString(i), StatType.LONG));
       }
     }
     for(int i = 0; i < array.length; i++) {
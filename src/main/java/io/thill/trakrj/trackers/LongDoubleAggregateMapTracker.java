@@ -0,0 +1,173 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.trackers;
+
+import io.thill.trakrj.Record;
+import io.thill.trakrj.Stat;
+import io.thill.trakrj.Stat.StatType;
+import io.thill.trakrj.StatVisitor;
+import io.thill.trakrj.Tracker;
+import io.thill.trakrj.function.LongDoubleConsumer;
+import org.eclipse.collections.api.block.procedure.primitive.LongDoubleProcedure;
+import org.eclipse.collections.api.block.procedure.primitive.LongLongProcedure;
+import org.eclipse.collections.api.map.primitive.MutableLongDoubleMap;
+import org.eclipse.collections.api.map.primitive.MutableLongLongMap;
+import org.eclipse.collections.impl.factory.primitive.LongDoubleMaps;
+import org.eclipse.collections.impl.factory.primitive.LongLongMaps;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tracker to aggregate double values per long key. keyLong is used as the key, and valueDouble is aggregated according to the configured
+ * {@link Aggregation}. Aggregation is applied on the conductor thread using primitive maps, so records are not boxed. Reset clears the map.
+ *
+ * @author Eric Thill
+ */
+public class LongDoubleAggregateMapTracker implements Tracker {
+
+  private final MutableLongDoubleMap values = LongDoubleMaps.mutable.empty();
+  private final MutableLongLongMap counts = LongLongMaps.mutable.empty();
+  private final Aggregation aggregation;
+  private final StatName statName = new StatName();
+  private StatVisitor visitor;
+  private final LongLongProcedure visitLongProcedure = (k, v) -> visitor.visitLong(statName.of(k), v);
+  private final LongDoubleProcedure visitDoubleProcedure = (k, v) -> visitor.visitDouble(statName.of(k), v);
+  private final LongDoubleProcedure visitAverageProcedure = (k, v) -> visitor.visitDouble(statName.of(k), v / counts.get(k));
+
+  /**
+   * @param aggregation The aggregation to apply per key
+   */
+  public LongDoubleAggregateMapTracker(Aggregation aggregation) {
+    this.aggregation = aggregation;
+  }
+
+  @Override
+  public void record(Record record) {
+    final long key = record.getKeyLong();
+    switch(aggregation) {
+      case SUM:
+        values.addToValue(key, record.getValueDouble());
+        break;
+      case COUNT:
+        counts.addToValue(key, 1);
+        break;
+      case MIN: {
+        final double value = record.getValueDouble();
+        final double current = values.getIfAbsent(key, Double.POSITIVE_INFINITY);
+        if(value < current || (current == Double.POSITIVE_INFINITY && !values.containsKey(key))) {
+          values.put(key, value);
+        }
+        break;
+      }
+      case MAX: {
+        final double value = record.getValueDouble();
+        final double current = values.getIfAbsent(key, Double.NEGATIVE_INFINITY);
+        if(value > current || (current == Double.NEGATIVE_INFINITY && !values.containsKey(key))) {
+          values.put(key, value);
+        }
+        break;
+      }
+      case AVERAGE:
+        values.addToValue(key, record.getValueDouble());
+        counts.addToValue(key, 1);
+        break;
+    }
+  }
+
+  @Override
+  public void reset() {
+    values.clear();
+    counts.clear();
+  }
+
+  /**
+   * Get the aggregation applied per key
+   *
+   * @return The aggregation
+   */
+  public Aggregation getAggregation() {
+    return aggregation;
+  }
+
+  /**
+   * Iterate over the aggregated value of every key. Values are given as doubles so the same consumer can be used for every aggregation. The purpose of
+   * providing access to the underlying map as a function is to not expose the underlying data structure types as part of the API.
+   *
+   * @param c The consumer to accept all aggregated values
+   */
+  public void forEach(LongDoubleConsumer c) {
+    switch(aggregation) {
+      case COUNT:
+        counts.forEachKeyValue((long k, long v) -> c.accept(k, v));
+        break;
+      case AVERAGE:
+        values.forEachKeyValue((long k, double v) -> c.accept(k, v / counts.get(k)));
+        break;
+      default:
+        values.forEachKeyValue((long k, double v) -> c.accept(k, v));
+        break;
+    }
+  }
+
+  @Override
+  public String toString() {
+    switch(aggregation) {
+      case COUNT:
+        return counts.toString();
+      case AVERAGE: {
+        final StringBuilder sb = new StringBuilder("{");
+        forEach((k, v) -> sb.append(sb.length() == 1 ? "" : ", ").append(k).append("=").append(v));
+        return sb.append("}").toString();
+      }
+      default:
+        return values.toString();
+    }
+  }
+
+  @Override
+  public List<? extends Stat> stats() {
+    final List<Stat> stats = new ArrayList<>();
+    switch(aggregation) {
+      case COUNT:
+        counts.forEachKeyValue((long k, long v) -> stats.add(new SettableStat(Long.toString(k), StatType.LONG).setLongValue(v)));
+        break;
+      case AVERAGE:
+        forEach((k, v) -> stats.add(new SettableStat(Long.toString(k), StatType.DOUBLE).setDoubleValue(v)));
+        break;
+      default:
+        values.forEachKeyValue((long k, double v) -> stats.add(new SettableStat(Long.toString(k), StatType.DOUBLE).setDoubleValue(v)));
+        break;
+    }
+    return stats;
+  }
+
+  @Override
+  public void visit(StatVisitor visitor) {
+    this.visitor = visitor;
+    try {
+      switch(aggregation) {
+        case COUNT:
+          counts.forEachKeyValue(visitLongProcedure);
+          break;
+        case AVERAGE:
+          values.forEachKeyValue(visitAverageProcedure);
+          break;
+        default:
+          values.forEachKeyValue(visitDoubleProcedure);
+          break;
+      }
+    } finally {
+      this.visitor = null;
+    }
+  }
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.trackers;
+
+import org.eclipse.collections.impl.map.mutable.primitive.LongIntHashMap;
+
+import java.util.function.LongConsumer;
+
+/**
+ * {@link EvictionIndex} for long keys. Double keys are indexed by {@link Double#doubleToLongBits(double)}.
+ *
+ * @author Eric Thill
+ */
+class LongEvictionIndex extends EvictionIndex {
+
+  private final LongIntHashMap slots;
+  private final long[] keys;
+  private final LongConsumer onEvict;
+
+  LongEvictionIndex(Eviction eviction, LongConsumer onEvict) {
+    super(eviction);
+    this.slots = new LongIntHashMap(eviction.getMaxSize());
+    this.keys = new long[eviction.getMaxSize()];
+    this.onEvict = onEvict;
+  }
+
+  boolean touch(long key) {
+    return touch(key, null);
+  }
+
+  @Override
+  protected int slotOf(long keyBits, Object keyObject) {
+    return slots.getIfAbsent(keyBits, -1);
+  }
+
+  @Override
+  protected void assign(int slot, long keyBits, Object keyObject) {
+    keys[slot] = keyBits;
+    slots.put(keyBits, slot);
+  }
+
+  @Override
+  protected void evict(int slot) {
+    slots.remove(keys[slot]);
+    onEvict.accept(keys[slot]);
+  }
+
+  @Override
+  protected void moveKey(int from, int to) {
+    keys[to] = keys[from];
+    slots.put(keys[to], to);
+  }
+
+  @Override
+  protected void clearKeys() {
+    slots.clear();
+  }
+}
@@ -77,7 +77,7 @@ public class ObjectArrayTracker implements Tracker {
   public List<Stat> stats() {
     if(stats.size() == 0) {
       for(int i = 0; i < array.length; i++) {
-        stats.add(new SettableStat(Integer.toString(i), StatType.DOUBLE));
+        stats.add(new SettableStat(Integer.toString(i), StatType.OBJECT));
       }
     }
     for(int i = 0; i < array.length; i++) {
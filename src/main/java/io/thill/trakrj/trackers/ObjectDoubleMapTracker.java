@@ -14,8 +14,10 @@ package io.thill.trakrj.trackers;
 import io.thill.trakrj.Record;
 import io.thill.trakrj.Stat;
 import io.thill.trakrj.Stat.StatType;
+import io.thill.trakrj.StatVisitor;
 import io.thill.trakrj.Tracker;
 import io.thill.trakrj.function.ObjectDoubleConsumer;
+import org.eclipse.collections.api.block.procedure.primitive.ObjectDoubleProcedure;
 import org.eclipse.collections.api.map.primitive.MutableObjectDoubleMap;
 import org.eclipse.collections.impl.factory.primitive.ObjectDoubleMaps;
 
@@ -24,26 +26,66 @@ import java.util.List;
 
 /**
  * Tracker to keep Object:double values in a map. Reset clears the map.
+ * <p>
+ * When constructed with an {@link Eviction}, the number of keys is bounded by the eviction's max size, and "evicted" and "other" counts are logged after the
+ * map entries.
  *
  * @author Eric Thill
  */
 public class ObjectDoubleMapTracker implements Tracker {
 
 	private final MutableObjectDoubleMap<Object> map = ObjectDoubleMaps.mutable.empty();
+	private final ObjectEvictionIndex index;
+	private final StatName statName = new StatName();
+	private StatVisitor visitor;
+	private final ObjectDoubleProcedure<Object> visitProcedure = (k, v) -> visitor.visitDouble(statName.of(k), v);
+
+	/**
+	 * Construct an unbounded map
+	 */
+	public ObjectDoubleMapTracker() {
+		this.index = null;
+	}
+
+	/**
+	 * Construct a map bounded by the given eviction policy
+	 *
+	 * @param eviction The max size and eviction policy of the map
+	 */
+	public ObjectDoubleMapTracker(Eviction eviction) {
+		this.index = new ObjectEvictionIndex(eviction, map::remove);
+	}
 
 	@Override
 	public void record(Record record) {
-		map.put(record.getKeyObject(), record.getValueDouble());
+		if(index == null || index.touch(record.getKeyObject())) {
+			map.put(record.getKeyObject(), record.getValueDouble());
+		}
+	}
+
+	@Override
+	public void tick(long timestamp) {
+		if(index != null) {
+			index.tick(timestamp);
+		}
+	}
+
+	@Override
+	public boolean changedSinceLastLog() {
+		return index != null && index.expiredAtTick();
 	}
 
 	@Override
 	public void reset() {
 		map.clear();
+		if(index != null) {
+			index.clear();
+		}
 	}
 
 	@Override
 	public String toString() {
-		return map.toString();
+		return index == null ? map.toString() : map.toString() + " " + index;
 	}
 
 	/**
@@ -60,6 +102,22 @@ public class ObjectDoubleMapTracker implements Tracker {
 	public List<? extends Stat> stats() {
 		final List<Stat> stats = new ArrayList<>();
 		forEach((k,v) -> stats.add(new SettableStat(k.toString(), StatType.DOUBLE).setDoubleValue(v)));
+		if(index != null) {
+			index.addStats(stats);
+		}
 		return stats;
 	}
+
+	@Override
+	public void visit(StatVisitor visitor) {
+		this.visitor = visitor;
+		try {
+			map.forEachKeyValue(visitProcedure);
+		} finally {
+			this.visitor = null;
+		}
+		if(index != null) {
+			index.visit(visitor);
+		}
+	}
 }
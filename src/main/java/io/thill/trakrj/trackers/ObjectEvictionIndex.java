@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.trackers;
+
+import org.eclipse.collections.impl.map.mutable.primitive.ObjectIntHashMap;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * {@link EvictionIndex} for Object keys.
+ *
+ * @author Eric Thill
+ */
+class ObjectEvictionIndex extends EvictionIndex {
+
+  private final ObjectIntHashMap<Object> slots;
+  private final Object[] keys;
+  private final Consumer<Object> onEvict;
+
+  ObjectEvictionIndex(Eviction eviction, Consumer<Object> onEvict) {
+    super(eviction);
+    this.slots = new ObjectIntHashMap<>(eviction.getMaxSize());
+    this.keys = new Object[eviction.getMaxSize()];
+    this.onEvict = onEvict;
+  }
+
+  boolean touch(Object key) {
+    return touch(0, key);
+  }
+
+  @Override
+  protected int slotOf(long keyBits, Object keyObject) {
+    return slots.getIfAbsent(keyObject, -1);
+  }
+
+  @Override
+  protected void assign(int slot, long keyBits, Object keyObject) {
+    keys[slot] = keyObject;
+    slots.put(keyObject, slot);
+  }
+
+  @Override
+  protected void evict(int slot) {
+    final Object key = keys[slot];
+    keys[slot] = null;
+    slots.remove(key);
+    onEvict.accept(key);
+  }
+
+  @Override
+  protected void moveKey(int from, int to) {
+    keys[to] = keys[from];
+    keys[from] = null;
+    slots.put(keys[to], to);
+  }
+
+  @Override
+  protected void clearKeys() {
+    slots.clear();
+    Arrays.fill(keys, null);
+  }
+}
@@ -14,6 +14,7 @@ package io.thill.trakrj.trackers;
 import io.thill.trakrj.Record;
 import io.thill.trakrj.Stat;
 import io.thill.trakrj.Stat.StatType;
+import io.thill.trakrj.StatVisitor;
 import io.thill.trakrj.Tracker;
 import io.thill.trakrj.function.ObjectObjectConsumer;
 
@@ -21,29 +22,70 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 
 /**
  * Tracker to keep Object:Object values in a map. Reset clears the map.
+ * <p>
+ * When constructed with an {@link Eviction}, the number of keys is bounded by the eviction's max size, and "evicted" and "other" counts are logged after the
+ * map entries.
  *
  * @author Eric Thill
  */
 public class ObjectObjectMapTracker implements Tracker {
 
   private final Map<Object, Object> map = new LinkedHashMap<>();
+  private final ObjectEvictionIndex index;
+  private final StatName statName = new StatName();
+  private StatVisitor visitor;
+  private final BiConsumer<Object, Object> visitProcedure = (k, v) -> visitor.visitObject(statName.of(k), v);
+
+  /**
+   * Construct an unbounded map
+   */
+  public ObjectObjectMapTracker() {
+    this.index = null;
+  }
+
+  /**
+   * Construct a map bounded by the given eviction policy
+   *
+   * @param eviction The max size and eviction policy of the map
+   */
+  public ObjectObjectMapTracker(Eviction eviction) {
+    this.index = new ObjectEvictionIndex(eviction, map::remove);
+  }
 
   @Override
   public void record(Record record) {
-    map.put(record.getKeyObject(), record.getValueObject());
+    if(index == null || index.touch(record.getKeyObject())) {
+      map.put(record.getKeyObject(), record.getValueObject());
+    }
+  }
+
+  @Override
+  public void tick(long timestamp) {
+    if(index != null) {
+      index.tick(timestamp);
+    }
+  }
+
+  @Override
+  public boolean changedSinceLastLog() {
+    return index != null && index.expiredAtTick();
   }
 
   @Override
   public void reset() {
     map.clear();
+    if(index != null) {
+      index.clear();
+    }
   }
 
   @Override
   public String toString() {
-    return map.toString();
+    return index == null ? map.toString() : map.toString() + " " + index;
   }
 
   /**
@@ -60,6 +102,22 @@ public class ObjectObjectMapTracker implements Tracker {
   public List<? extends Stat> stats() {
     final List<Stat> stats = new ArrayList<>();
     forEach((k,v) -> stats.add(new SettableStat(k.toString(), StatType.OBJECT).setObjectValue(v)));
+    if(index != null) {
+      index.addStats(stats);
+    }
     return stats;
   }
+
+  @Override
+  public void visit(StatVisitor visitor) {
+    this.visitor = visitor;
+    try {
+      map.forEach(visitProcedure);
+    } finally {
+      this.visitor = null;
+    }
+    if(index != null) {
+      index.visit(visitor);
+    }
+  }
 }
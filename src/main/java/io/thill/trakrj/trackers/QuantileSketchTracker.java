@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.trackers;
+
+import io.thill.trakrj.Record;
+import io.thill.trakrj.Stat;
+import io.thill.trakrj.Stat.StatType;
+import io.thill.trakrj.Tracker;
+import io.thill.trakrj.internal.sketch.KllSketch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static io.thill.trakrj.trackers.HistogramTracker.DEFAULT_PERCENTILES;
+
+/**
+ * Tracker to send all doubleValues to a KLL quantile sketch. Unlike a histogram, the sketch needs no value range or precision up front, and its rank error
+ * does not depend on how many orders of magnitude the values span. Memory is bounded by k. NaN values are ignored. Sketches can be merged across trackers or
+ * windows using {@link #merge(QuantileSketchTracker)}. Reset clears the sketch.
+ *
+ * @author Eric Thill
+ */
+public class QuantileSketchTracker implements Tracker {
+
+  private final KllSketch sketch;
+  private final List<Double> percentiles;
+  private final List<String> percentilesDisplay;
+  private final List<SettableStat> stats = new ArrayList<>();
+  private final List<Stat> statsUnmodifiable = Collections.unmodifiableList(stats);
+
+  /**
+   * Instantiate the underlying sketch with k=200 and use percentiles=[0.0, 50.0, 90.0, 99.0, 99.9, 100.0]
+   */
+  public QuantileSketchTracker() {
+    this(KllSketch.DEFAULT_K, DEFAULT_PERCENTILES);
+  }
+
+  /**
+   * Instantiate the underlying sketch with k=200 and use the given percentiles
+   *
+   * @param percentiles The percentiles to log. 0=minValue and 100=maxValue
+   */
+  public QuantileSketchTracker(List<Double> percentiles) {
+    this(KllSketch.DEFAULT_K, percentiles);
+  }
+
+  /**
+   * Instantiate the underlying sketch with the given k and use the given percentiles
+   *
+   * @param k           The k passed to the underlying sketch. Larger values use more memory and have a lower rank error.
+   * @param percentiles The percentiles to log. 0=minValue and 100=maxValue
+   */
+  public QuantileSketchTracker(int k, List<Double> percentiles) {
+    this.sketch = new KllSketch(k);
+    this.percentiles = percentiles;
+    this.percentilesDisplay = HistogramTracker.stringifyPercentiles(percentiles);
+    for(String pctDisplay : percentilesDisplay) {
+      stats.add(new SettableStat(pctDisplay, StatType.DOUBLE));
+    }
+    stats.add(new SettableStat("count", StatType.LONG));
+  }
+
+  @Override
+  public void record(Record record) {
+    sketch.update(record.getValueDouble());
+  }
+
+  @Override
+  public void reset() {
+    sketch.reset();
+  }
+
+  /**
+   * Merge the values of the given tracker into this tracker. The other tracker is not modified.
+   *
+   * @param other The tracker to merge from, which must use the same k and must not be this tracker
+   */
+  public void merge(QuantileSketchTracker other) {
+    sketch.merge(other.sketch);
+  }
+
+  /**
+   * Get the min value recorded
+   *
+   * @return The min value
+   */
+  public double getMinValue() {
+    return sketch.getMin();
+  }
+
+  /**
+   * Get the max value recorded
+   *
+   * @return The max value
+   */
+  public double getMaxValue() {
+    return sketch.getMax();
+  }
+
+  /**
+   * Get the approximate value at the given percentile
+   *
+   * @param percentile The percentile
+   * @return The value at the given percentile
+   */
+  public double getValueAtPercentile(double percentile) {
+    return sketch.getQuantile(percentile / 100.0);
+  }
+
+  /**
+   * Get the total count of values recorded
+   *
+   * @return The total count
+   */
+  public long getTotalCount() {
+    return sketch.getCount();
+  }
+
+  private double valueAt(int index) {
+    return sketch.getCount() == 0 ? 0 : sketch.getQuantile(percentiles.get(index) / 100.0);
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder sb = new StringBuilder("[");
+    for(int i = 0; i < percentiles.size(); i++) {
+      sb.append(" ").append(percentilesDisplay.get(i)).append("=").append(valueAt(i));
+    }
+    sb.append(" ] count=").append(sketch.getCount());
+    return sb.toString();
+  }
+
+  @Override
+  public List<? extends Stat> stats() {
+    for(int i = 0; i < percentiles.size(); i++) {
+      stats.get(i).setDoubleValue(valueAt(i));
+    }
+    stats.get(percentiles.size()).setLongValue(sketch.getCount());
+    return statsUnmodifiable;
+  }
+
+}
@@ -0,0 +1,246 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.trackers;
+
+import io.thill.trakrj.Record;
+import io.thill.trakrj.Stat;
+import io.thill.trakrj.Stat.StatType;
+import io.thill.trakrj.Tracker;
+import io.thill.trakrj.clock.Clock;
+import io.thill.trakrj.clock.SystemClock;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracker to measure the rate of events. Every record counts as one event, so the record path is a single increment. At each log, the events counted since the
+ * previous log are turned into an instantaneous rate, which is folded into 1, 5, and 15 minute exponentially weighted moving averages. The decay of each
+ * average is scaled by the actual time elapsed between logs, so the averages are correct for any log interval. The mean rate is calculated over the time since
+ * the tracker was created or last reset on-demand. Scheduled resets are ignored, so the averages keep smoothing across logs for any reset interval. An
+ * on-demand reset through {@link io.thill.trakrj.Stats#reset(io.thill.trakrj.TrackerId)} clears all rates and the total count.
+ *
+ * @author Eric Thill
+ */
+public class RateTracker implements Tracker {
+
+  private static final long M1_MILLIS = TimeUnit.MINUTES.toMillis(1);
+  private static final long M5_MILLIS = TimeUnit.MINUTES.toMillis(5);
+  private static final long M15_MILLIS = TimeUnit.MINUTES.toMillis(15);
+
+  private final double millisPerUnit;
+  private final String unitDisplay;
+  private final SettableStat rateStat = new SettableStat("rate", StatType.DOUBLE);
+  private final SettableStat m1RateStat = new SettableStat("m1_rate", StatType.DOUBLE);
+  private final SettableStat m5RateStat = new SettableStat("m5_rate", StatType.DOUBLE);
+  private final SettableStat m15RateStat = new SettableStat("m15_rate", StatType.DOUBLE);
+  private final SettableStat meanRateStat = new SettableStat("mean_rate", StatType.DOUBLE);
+  private final SettableStat countStat = new SettableStat("count", StatType.LONG);
+  private final List<Stat> stats = Collections.unmodifiableList(Arrays.asList(rateStat, m1RateStat, m5RateStat, m15RateStat, meanRateStat, countStat));
+
+  private long intervalCount;
+  private long totalCount;
+  private long startMillis;
+  private long lastTickMillis;
+  private boolean initialized;
+  private double rate;
+  private double m1Rate;
+  private double m5Rate;
+  private double m15Rate;
+  private double meanRate;
+
+  /**
+   * Measure rates per second using the system clock
+   */
+  public RateTracker() {
+    this(TimeUnit.SECONDS);
+  }
+
+  /**
+   * Measure rates per the given unit using the system clock
+   *
+   * @param rateUnit The unit of time rates are measured in
+   */
+  public RateTracker(TimeUnit rateUnit) {
+    this(rateUnit, new SystemClock());
+  }
+
+  /**
+   * Measure rates per the given unit using the given clock. The clock should be the same clock used by the conductor, see
+   * {@link io.thill.trakrj.Stats#clock()}.
+   *
+   * @param rateUnit The unit of time rates are measured in
+   * @param clock    The clock used to timestamp the start of the tracker
+   */
+  public RateTracker(TimeUnit rateUnit, Clock clock) {
+    this.millisPerUnit = rateUnit.toMillis(1) > 0 ? rateUnit.toMillis(1) : rateUnit.toNanos(1) / 1_000_000.0;
+    this.unitDisplay = unitDisplay(rateUnit);
+    this.startMillis = clock.millis();
+    this.lastTickMillis = startMillis;
+  }
+
+  private static String unitDisplay(TimeUnit unit) {
+    switch(unit) {
+      case NANOSECONDS:
+        return "ns";
+      case MICROSECONDS:
+        return "us";
+      case MILLISECONDS:
+        return "ms";
+      case SECONDS:
+        return "s";
+      case MINUTES:
+        return "m";
+      case HOURS:
+        return "h";
+      default:
+        return "d";
+    }
+  }
+
+  @Override
+  public void record(Record record) {
+    intervalCount++;
+  }
+
+  @Override
+  public void tick(long timestamp) {
+    final long elapsed = timestamp - lastTickMillis;
+    if(elapsed <= 0) {
+      return;
+    }
+    rate = intervalCount * millisPerUnit / elapsed;
+    if(initialized) {
+      m1Rate = decay(m1Rate, rate, elapsed, M1_MILLIS);
+      m5Rate = decay(m5Rate, rate, elapsed, M5_MILLIS);
+      m15Rate = decay(m15Rate, rate, elapsed, M15_MILLIS);
+    } else {
+      m1Rate = rate;
+      m5Rate = rate;
+      m15Rate = rate;
+      initialized = true;
+    }
+    totalCount += intervalCount;
+    intervalCount = 0;
+    lastTickMillis = timestamp;
+    meanRate = timestamp > startMillis ? totalCount * millisPerUnit / (timestamp - startMillis) : 0;
+  }
+
+  /**
+   * The mean rate and the moving averages keep changing at every log once any event was counted
+   */
+  @Override
+  public boolean changedSinceLastLog() {
+    return totalCount > 0;
+  }
+
+  private static double decay(double average, double rate, long elapsedMillis, long windowMillis) {
+    final double alpha = 1 - Math.exp(-(double)elapsedMillis / windowMillis);
+    return average + alpha * (rate - average);
+  }
+
+  /**
+   * Scheduled resets are ignored. Events counted since the previous log are still turned into a rate over the time elapsed at the next log.
+   */
+  @Override
+  public void reset() {
+
+  }
+
+  /**
+   * Clear all rates and the total count. The mean rate restarts from the most recent log, so it is timed by the conductor's clock.
+   */
+  @Override
+  public void resetOnDemand() {
+    intervalCount = 0;
+    totalCount = 0;
+    startMillis = lastTickMillis;
+    initialized = false;
+    rate = 0;
+    m1Rate = 0;
+    m5Rate = 0;
+    m15Rate = 0;
+    meanRate = 0;
+  }
+
+  /**
+   * Get the rate over the last log interval
+   *
+   * @return The rate over the last log interval
+   */
+  public double getRate() {
+    return rate;
+  }
+
+  /**
+   * Get the one minute exponentially weighted moving average rate
+   *
+   * @return The one minute rate
+   */
+  public double getOneMinuteRate() {
+    return m1Rate;
+  }
+
+  /**
+   * Get the five minute exponentially weighted moving average rate
+   *
+   * @return The five minute rate
+   */
+  public double getFiveMinuteRate() {
+    return m5Rate;
+  }
+
+  /**
+   * Get the fifteen minute exponentially weighted moving average rate
+   *
+   * @return The fifteen minute rate
+   */
+  public double getFifteenMinuteRate() {
+    return m15Rate;
+  }
+
+  /**
+   * Get the mean rate since the tracker was created or last reset
+   *
+   * @return The mean rate
+   */
+  public double getMeanRate() {
+    return meanRate;
+  }
+
+  /**
+   * Get the total number of events counted as of the last log
+   *
+   * @return The total count
+   */
+  public long getCount() {
+    return totalCount;
+  }
+
+  @Override
+  public String toString() {
+    return "[ rate=" + rate + " m1_rate=" + m1Rate + " m5_rate=" + m5Rate + " m15_rate=" + m15Rate + " mean_rate=" + meanRate + " ] per=" + unitDisplay +
+            " count=" + totalCount;
+  }
+
+  @Override
+  public List<? extends Stat> stats() {
+    rateStat.setDoubleValue(rate);
+    m1RateStat.setDoubleValue(m1Rate);
+    m5RateStat.setDoubleValue(m5Rate);
+    m15RateStat.setDoubleValue(m15Rate);
+    meanRateStat.setDoubleValue(meanRate);
+    countStat.setLongValue(totalCount);
+    return stats;
+  }
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.trackers;
+
+/**
+ * The count, mean, and sample variance of a stream of values, computed with Welford's online algorithm, which is numerically stable for long-running
+ * intervals.
+ *
+ * @author Eric Thill
+ */
+final class RunningMoments {
+
+  private long count;
+  private double mean;
+  private double m2;
+
+  void add(double value) {
+    count++;
+    final double delta = value - mean;
+    mean += delta / count;
+    m2 += delta * (value - mean);
+  }
+
+  void reset() {
+    count = 0;
+    mean = 0;
+    m2 = 0;
+  }
+
+  long count() {
+    return count;
+  }
+
+  /**
+   * @return The mean, or NaN when no values have been added
+   */
+  double mean() {
+    return count == 0 ? Double.NaN : mean;
+  }
+
+  /**
+   * @return The sample variance, or NaN when fewer than two values have been added
+   */
+  double variance() {
+    return count < 2 ? Double.NaN : m2 / (count - 1);
+  }
+
+  /**
+   * @return The sample standard deviation, or NaN when fewer than two values have been added
+   */
+  double stddev() {
+    return Math.sqrt(variance());
+  }
+
+  /**
+   * Set the given stat to the sample standard deviation, or to null when fewer than two values have been added
+   */
+  SettableStat setStdDev(SettableStat stat) {
+    return count < 2 ? stat.setNull() : stat.setDoubleValue(stddev());
+  }
+
+  /**
+   * @return The sample standard deviation, or "null" when fewer than two values have been added
+   */
+  String stddevDisplay() {
+    return count < 2 ? "null" : Double.toString(stddev());
+  }
+}
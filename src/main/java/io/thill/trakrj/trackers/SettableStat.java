@@ -18,16 +18,22 @@ import io.thill.trakrj.Stat;
  */
 class SettableStat implements Stat {
 
-  private final String name;
+  private String name;
   private final StatType type;
+  private final StatKind kind;
   private boolean nil;
   private long longValue;
   private double doubleValue;
   private Object objectValue;
 
   public SettableStat(String name, StatType type) {
+    this(name, type, StatKind.GAUGE);
+  }
+
+  public SettableStat(String name, StatType type, StatKind kind) {
     this.name = name;
     this.type = type;
+    this.kind = kind;
     this.nil = true;
   }
 
@@ -41,6 +47,11 @@ class SettableStat implements Stat {
     return type;
   }
 
+  @Override
+  public StatKind kind() {
+    return kind;
+  }
+
   @Override
   public long longValue() {
     return longValue;
@@ -56,6 +67,11 @@ class SettableStat implements Stat {
     return objectValue;
   }
 
+  public SettableStat setName(String name) {
+    this.name = name;
+    return this;
+  }
+
   public SettableStat setLongValue(long longValue) {
     this.nil = false;
     this.longValue = longValue;
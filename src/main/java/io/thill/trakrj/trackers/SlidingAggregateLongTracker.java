@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.trackers;
+
+import io.thill.trakrj.Record;
+
+/**
+ * Tracks the aggregate of long values over a sliding window of the last N log intervals. Each log interval aggregates into its own bucket. At each log, the
+ * current bucket is added to the logged aggregate and the oldest bucket is subtracted from it. The tracker should be registered without a reset interval,
+ * since a reset clears every bucket.
+ *
+ * @author Eric Thill
+ */
+public class SlidingAggregateLongTracker extends AbstractLongTracker {
+
+  private final long[] ring;
+  private int head;
+  private long value;
+  private boolean changed;
+
+  /**
+   * @param buckets The number of log intervals covered by the window
+   */
+  public SlidingAggregateLongTracker(int buckets) {
+    super(-1);
+    this.ring = new long[SlidingHistogramTracker.ringSize(buckets)];
+  }
+
+  @Override
+  public void record(Record record) {
+    ring[head] += record.getValueLong();
+  }
+
+  @Override
+  public void tick(long timestamp) {
+    final long previous = value;
+    value += ring[head];
+    head = head == ring.length - 1 ? 0 : head + 1;
+    value -= ring[head];
+    ring[head] = 0;
+    changed = value != previous;
+  }
+
+  @Override
+  public boolean changedSinceLastLog() {
+    return changed;
+  }
+
+  @Override
+  public void reset() {
+    value = 0;
+    for(int i = 0; i < ring.length; i++) {
+      ring[i] = 0;
+    }
+  }
+
+  @Override
+  public long getValue() {
+    return value;
+  }
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.trackers;
+
+import io.thill.trakrj.Record;
+
+/**
+ * Tracks the average of double values over a sliding window of the last N log intervals. Each log interval keeps its own sum and count. At each log, the
+ * current bucket is added to the window totals and the oldest bucket is subtracted from them. The totals are recomputed from the buckets once per full
+ * rotation of the ring so floating-point error from repeated subtraction cannot accumulate. The tracker should be registered without a reset interval, since
+ * a reset clears every bucket.
+ *
+ * @author Eric Thill
+ */
+public class SlidingAverageDoubleTracker extends AbstractDoubleTracker {
+
+  private final double[] sums;
+  private final long[] counts;
+  private int head;
+  private double aggregate;
+  private long numRecords;
+  private boolean changed;
+
+  /**
+   * @param buckets The number of log intervals covered by the window
+   */
+  public SlidingAverageDoubleTracker(int buckets) {
+    super(Double.NaN);
+    final int ringSize = SlidingHistogramTracker.ringSize(buckets);
+    this.sums = new double[ringSize];
+    this.counts = new long[ringSize];
+  }
+
+  @Override
+  public void record(Record record) {
+    sums[head] += record.getValueDouble();
+    counts[head]++;
+  }
+
+  @Override
+  public void tick(long timestamp) {
+    // a bucket entering or leaving the window with records changes the average
+    final int next = head == sums.length - 1 ? 0 : head + 1;
+    changed = counts[head] > 0 || counts[next] > 0;
+    aggregate += sums[head];
+    numRecords += counts[head];
+    head = head == sums.length - 1 ? 0 : head + 1;
+    if(head == 0) {
+      sums[0] = 0;
+      counts[0] = 0;
+      aggregate = 0;
+      numRecords = 0;
+      for(int i = 1; i < sums.length; i++) {
+        aggregate += sums[i];
+        numRecords += counts[i];
+      }
+    } else {
+      aggregate -= sums[head];
+      numRecords -= counts[head];
+      sums[head] = 0;
+      counts[head] = 0;
+    }
+  }
+
+  @Override
+  public boolean changedSinceLastLog() {
+    return changed;
+  }
+
+  @Override
+  public void reset() {
+    aggregate = 0;
+    numRecords = 0;
+    for(int i = 0; i < sums.length; i++) {
+      sums[i] = 0;
+      counts[i] = 0;
+    }
+  }
+
+  @Override
+  public double getValue() {
+    return aggregate / numRecords;
+  }
+
+}
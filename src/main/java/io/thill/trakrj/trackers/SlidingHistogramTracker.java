@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.trackers;
+
+import io.thill.trakrj.Record;
+import org.HdrHistogram.Histogram;
+
+import java.util.List;
+
+/**
+ * Tracker to send long values to a histogram that covers a sliding window of the last N log intervals. Each log interval records into its own bucket
+ * histogram. At each log, the current bucket is added to the logged histogram and the oldest bucket is subtracted from it, so the logged histogram is updated
+ * incrementally instead of being rebuilt from every bucket. Memory is bounded at N+1 bucket histograms plus the logged histogram. The tracker should be
+ * registered without a reset interval, since a reset clears every bucket.
+ *
+ * @author Eric Thill
+ */
+public class SlidingHistogramTracker extends HistogramTracker {
+
+  private final Histogram[] ring;
+  private final Histogram window;
+  private boolean changed;
+  private int head;
+
+  /**
+   * Instantiate the underlying histograms with numberOfSignificantValueDigits=3 and use percentiles=[0.0, 50.0, 90.0, 99.0, 99.9, 100.0]
+   *
+   * @param buckets The number of log intervals covered by the window
+   */
+  public SlidingHistogramTracker(int buckets) {
+    this(buckets, 3, DEFAULT_PERCENTILES);
+  }
+
+  /**
+   * Instantiate the underlying histograms with numberOfSignificantValueDigits=3 and use the given percentiles
+   *
+   * @param buckets     The number of log intervals covered by the window
+   * @param percentiles The percentiles to log. 0=minValue and 100=maxValue
+   */
+  public SlidingHistogramTracker(int buckets, List<Double> percentiles) {
+    this(buckets, 3, percentiles);
+  }
+
+  /**
+   * Instantiate the underlying histograms with the given numberOfSignificantValueDigits and use the given percentiles
+   *
+   * @param buckets                        The number of log intervals covered by the window
+   * @param numberOfSignificantValueDigits The numberOfSignificantValueDigits passed to the underlying histograms
+   * @param percentiles                    The percentiles to log. 0=minValue and 100=maxValue
+   */
+  public SlidingHistogramTracker(int buckets, int numberOfSignificantValueDigits, List<Double> percentiles) {
+    this(createRing(buckets, numberOfSignificantValueDigits), new Histogram(numberOfSignificantValueDigits), percentiles);
+  }
+
+  /**
+   * Instantiate the underlying histograms with the given arguments and use the given percentiles
+   *
+   * @param buckets                        The number of log intervals covered by the window
+   * @param highestTrackableValue          The highestTrackableValue passed to the underlying histograms
+   * @param numberOfSignificantValueDigits The numberOfSignificantValueDigits passed to the underlying histograms
+   * @param percentiles                    The percentiles to log. 0=minValue and 100=maxValue
+   */
+  public SlidingHistogramTracker(int buckets, long highestTrackableValue, int numberOfSignificantValueDigits, List<Double> percentiles) {
+    this(createRing(buckets, highestTrackableValue, numberOfSignificantValueDigits), new Histogram(highestTrackableValue, numberOfSignificantValueDigits),
+            percentiles);
+  }
+
+  private SlidingHistogramTracker(Histogram[] ring, Histogram window, List<Double> percentiles) {
+    super(window, percentiles);
+    this.ring = ring;
+    this.window = window;
+  }
+
+  private static Histogram[] createRing(int buckets, int numberOfSignificantValueDigits) {
+    final Histogram[] ring = new Histogram[ringSize(buckets)];
+    for(int i = 0; i < ring.length; i++) {
+      ring[i] = new Histogram(numberOfSignificantValueDigits);
+    }
+    return ring;
+  }
+
+  private static Histogram[] createRing(int buckets, long highestTrackableValue, int numberOfSignificantValueDigits) {
+    final Histogram[] ring = new Histogram[ringSize(buckets)];
+    for(int i = 0; i < ring.length; i++) {
+      ring[i] = new Histogram(highestTrackableValue, numberOfSignificantValueDigits);
+    }
+    return ring;
+  }
+
+  static int ringSize(int buckets) {
+    if(buckets < 1) {
+      throw new IllegalArgumentException("buckets must be positive");
+    }
+    // one bucket is being recorded into while the other N make up the window
+    return buckets + 1;
+  }
+
+  @Override
+  public void record(Record record) {
+    ring[head].recordValue(record.getValueLong());
+  }
+
+  @Override
+  public void tick(long timestamp) {
+    changed = ring[head].getTotalCount() > 0;
+    window.add(ring[head]);
+    head = head == ring.length - 1 ? 0 : head + 1;
+    if(ring[head].getTotalCount() > 0) {
+      window.subtract(ring[head]);
+      ring[head].reset();
+      changed = true;
+    }
+    invalidate();
+  }
+
+  @Override
+  public boolean changedSinceLastLog() {
+    return changed;
+  }
+
+  @Override
+  public void reset() {
+    super.reset();
+    for(Histogram bucket : ring) {
+      bucket.reset();
+    }
+  }
+
+}
@@ -0,0 +1,51 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.trackers;
+
+/**
+ * A reusable stat name for trackers that name stats after their keys, so primitive keys can be passed to a {@link io.thill.trakrj.StatVisitor} without
+ * allocating a String per stat. The returned name is only valid until the next call.
+ *
+ * @author Eric Thill
+ */
+final class StatName {
+
+  private final StringBuilder sb = new StringBuilder();
+
+  CharSequence of(long key) {
+    sb.setLength(0);
+    return sb.append(key);
+  }
+
+  CharSequence of(double key) {
+    sb.setLength(0);
+    return sb.append(key);
+  }
+
+  CharSequence of(Object key) {
+    if(key instanceof CharSequence) {
+      return (CharSequence)key;
+    }
+    sb.setLength(0);
+    return sb.append(key);
+  }
+
+  CharSequence of(String prefix, long key) {
+    sb.setLength(0);
+    return sb.append(prefix).append(key);
+  }
+
+  CharSequence of(String prefix, Object key) {
+    sb.setLength(0);
+    return sb.append(prefix).append(key);
+  }
+}
@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.trackers;
+
+import io.thill.trakrj.Record;
+import io.thill.trakrj.Stat;
+import io.thill.trakrj.Stat.StatType;
+import io.thill.trakrj.Tracker;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tracker to summarize long values: count, sum, min, max, mean, and standard deviation, all updated by a single record. The mean and variance are computed with
+ * Welford's online algorithm, which is numerically stable for long-running intervals. The standard deviation is the sample standard deviation. min, max, and
+ * mean are null when no values have been recorded, and stddev is null when fewer than two values have been recorded.
+ *
+ * @author Eric Thill
+ */
+public class SummaryLongTracker implements Tracker {
+
+  private final SettableStat countStat = new SettableStat("count", StatType.LONG);
+  private final SettableStat sumStat = new SettableStat("sum", StatType.LONG);
+  private final SettableStat minStat = new SettableStat("min", StatType.LONG);
+  private final SettableStat maxStat = new SettableStat("max", StatType.LONG);
+  private final SettableStat meanStat = new SettableStat("mean", StatType.DOUBLE);
+  private final SettableStat stddevStat = new SettableStat("stddev", StatType.DOUBLE);
+  private final List<Stat> stats = Collections.unmodifiableList(Arrays.asList(countStat, sumStat, minStat, maxStat, meanStat, stddevStat));
+
+  private final RunningMoments moments = new RunningMoments();
+  private long sum;
+  private long min;
+  private long max;
+
+  public SummaryLongTracker() {
+    reset();
+  }
+
+  @Override
+  public void record(Record record) {
+    final long value = record.getValueLong();
+    moments.add(value);
+    sum += value;
+    if(value < min) {
+      min = value;
+    }
+    if(value > max) {
+      max = value;
+    }
+  }
+
+  @Override
+  public void reset() {
+    moments.reset();
+    sum = 0;
+    min = Long.MAX_VALUE;
+    max = Long.MIN_VALUE;
+  }
+
+  /**
+   * Get the number of recorded values
+   *
+   * @return The count
+   */
+  public long getCount() {
+    return moments.count();
+  }
+
+  /**
+   * Get the sum of recorded values
+   *
+   * @return The sum
+   */
+  public long getSum() {
+    return sum;
+  }
+
+  /**
+   * Get the min recorded value
+   *
+   * @return The min value, or Long.MAX_VALUE when no values have been recorded
+   */
+  public long getMin() {
+    return min;
+  }
+
+  /**
+   * Get the max recorded value
+   *
+   * @return The max value, or Long.MIN_VALUE when no values have been recorded
+   */
+  public long getMax() {
+    return max;
+  }
+
+  /**
+   * Get the mean of recorded values
+   *
+   * @return The mean, or NaN when no values have been recorded
+   */
+  public double getMean() {
+    return moments.mean();
+  }
+
+  /**
+   * Get the sample variance of recorded values
+   *
+   * @return The sample variance, or NaN when fewer than two values have been recorded
+   */
+  public double getVariance() {
+    return moments.variance();
+  }
+
+  /**
+   * Get the sample standard deviation of recorded values
+   *
+   * @return The sample standard deviation, or NaN when fewer than two values have been recorded
+   */
+  public double getStdDev() {
+    return moments.stddev();
+  }
+
+  @Override
+  public String toString() {
+    final long count = moments.count();
+    if(count == 0) {
+      return "[ sum=" + sum + " min=null max=null mean=null stddev=null ] count=0";
+    }
+    return "[ sum=" + sum + " min=" + min + " max=" + max + " mean=" + moments.mean() + " stddev=" + moments.stddevDisplay() + " ] count=" + count;
+  }
+
+  @Override
+  public List<? extends Stat> stats() {
+    final long count = moments.count();
+    countStat.setLongValue(count);
+    sumStat.setLongValue(sum);
+    if(count == 0) {
+      minStat.setNull();
+      maxStat.setNull();
+      meanStat.setNull();
+      stddevStat.setNull();
+    } else {
+      minStat.setLongValue(min);
+      maxStat.setLongValue(max);
+      meanStat.setDoubleValue(moments.mean());
+      moments.setStdDev(stddevStat);
+    }
+    return stats;
+  }
+}
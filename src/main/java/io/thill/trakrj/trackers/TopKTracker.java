@@ -0,0 +1,318 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.trackers;
+
+import io.thill.trakrj.Record;
+import io.thill.trakrj.Stat;
+import io.thill.trakrj.Stat.StatType;
+import io.thill.trakrj.StatVisitor;
+import io.thill.trakrj.Tracker;
+import org.eclipse.collections.impl.map.mutable.primitive.LongIntHashMap;
+import org.eclipse.collections.impl.map.mutable.primitive.ObjectIntHashMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tracker to find the heavy hitters among a large or unbounded set of keys using the Space-Saving algorithm. keyObject is used as the key when it is not null,
+ * otherwise keyLong is used as the key. A fixed number of counters is kept. When a new key arrives and every counter is in use, the counter with the smallest
+ * count is given to the new key and keeps its count, which becomes the new key's error. Reported counts are therefore over-estimates by at most the logged
+ * "error" value, which is the smallest count in the table once it is full, and any key whose true count exceeds it is guaranteed to be tracked. Only the top K
+ * keys are logged, each as a stat named "top." followed by the key, so no key can collide with the "error" stat. Reset clears all counters.
+ *
+ * @author Eric Thill
+ */
+public class TopKTracker implements Tracker {
+
+  /**
+   * How each record contributes to its key's count
+   */
+  public enum Mode {
+    /**
+     * Each record adds one to its key's count
+     */
+    COUNT,
+    /**
+     * Each record adds valueLong to its key's count. Records with a negative value are ignored, since a count that decreases would break the error bound.
+     */
+    SUM
+  }
+
+  private static final int NO_SLOT = -1;
+  private static final String KEY_PREFIX = "top.";
+
+  private final int k;
+  private final int capacity;
+  private final Mode mode;
+  private final ObjectIntHashMap<Object> objectSlots;
+  private final LongIntHashMap longSlots;
+  private final Object[] objectKeys;
+  private final long[] longKeys;
+  private final long[] counts;
+  private final long[] errors;
+  // min-heap of slots ordered by count, the root is the next slot to be replaced
+  private final int[] heap;
+  private final int[] heapPositions;
+  private final int[] top;
+  private final List<SettableStat> stats = new ArrayList<>();
+  private final List<Stat> statsUnmodifiable = Collections.unmodifiableList(stats);
+  private final SettableStat[] topStats;
+  private final SettableStat errorStat = new SettableStat("error", StatType.LONG);
+  private final StatName statName = new StatName();
+  private int size;
+  private int topSize;
+  private boolean dirty = true;
+
+  /**
+   * Track the top K keys by count using 4*K counters
+   *
+   * @param k The number of keys to log
+   */
+  public TopKTracker(int k) {
+    this(k, 4 * k, Mode.COUNT);
+  }
+
+  /**
+   * Track the top K keys using 4*K counters
+   *
+   * @param k    The number of keys to log
+   * @param mode Whether to rank keys by record count or by summed valueLong
+   */
+  public TopKTracker(int k, Mode mode) {
+    this(k, 4 * k, mode);
+  }
+
+  /**
+   * Track the top K keys using the given number of counters. More counters lowers the error bound.
+   *
+   * @param k        The number of keys to log
+   * @param capacity The number of counters, which must be at least k
+   * @param mode     Whether to rank keys by record count or by summed valueLong
+   */
+  public TopKTracker(int k, int capacity, Mode mode) {
+    if(k < 1) {
+      throw new IllegalArgumentException("k must be positive");
+    }
+    if(capacity < k) {
+      throw new IllegalArgumentException("capacity must be at least k");
+    }
+    this.k = k;
+    this.capacity = capacity;
+    this.mode = mode;
+    this.objectSlots = new ObjectIntHashMap<>(capacity);
+    this.longSlots = new LongIntHashMap(capacity);
+    this.objectKeys = new Object[capacity];
+    this.longKeys = new long[capacity];
+    this.counts = new long[capacity];
+    this.errors = new long[capacity];
+    this.heap = new int[capacity];
+    this.heapPositions = new int[capacity];
+    this.top = new int[k];
+    this.topStats = new SettableStat[k];
+    for(int i = 0; i < k; i++) {
+      topStats[i] = new SettableStat(null, StatType.LONG);
+    }
+  }
+
+  @Override
+  public void record(Record record) {
+    final long increment = mode == Mode.COUNT ? 1 : record.getValueLong();
+    if(increment < 0) {
+      return;
+    }
+    final Object keyObject = record.getKeyObject();
+    final int slot;
+    if(keyObject != null) {
+      slot = objectSlots.getIfAbsent(keyObject, NO_SLOT);
+    } else {
+      slot = longSlots.getIfAbsent(record.getKeyLong(), NO_SLOT);
+    }
+    if(slot != NO_SLOT) {
+      counts[slot] += increment;
+      siftDown(heapPositions[slot]);
+    } else if(size < capacity) {
+      final int newSlot = size++;
+      assign(newSlot, keyObject, record.getKeyLong());
+      counts[newSlot] = increment;
+      errors[newSlot] = 0;
+      heap[newSlot] = newSlot;
+      heapPositions[newSlot] = newSlot;
+      siftUp(newSlot);
+    } else {
+      final int minSlot = heap[0];
+      if(objectKeys[minSlot] != null) {
+        objectSlots.remove(objectKeys[minSlot]);
+      } else {
+        longSlots.remove(longKeys[minSlot]);
+      }
+      assign(minSlot, keyObject, record.getKeyLong());
+      errors[minSlot] = counts[minSlot];
+      counts[minSlot] += increment;
+      siftDown(0);
+    }
+    dirty = true;
+  }
+
+  private void assign(int slot, Object keyObject, long keyLong) {
+    objectKeys[slot] = keyObject;
+    longKeys[slot] = keyLong;
+    if(keyObject != null) {
+      objectSlots.put(keyObject, slot);
+    } else {
+      longSlots.put(keyLong, slot);
+    }
+  }
+
+  private void siftUp(int pos) {
+    final int slot = heap[pos];
+    while(pos > 0) {
+      final int parent = (pos - 1) >>> 1;
+      if(counts[heap[parent]] <= counts[slot]) {
+        break;
+      }
+      place(pos, heap[parent]);
+      pos = parent;
+    }
+    place(pos, slot);
+  }
+
+  private void siftDown(int pos) {
+    final int slot = heap[pos];
+    while(true) {
+      int child = 2 * pos + 1;
+      if(child >= size) {
+        break;
+      }
+      if(child + 1 < size && counts[heap[child + 1]] < counts[heap[child]]) {
+        child++;
+      }
+      if(counts[slot] <= counts[heap[child]]) {
+        break;
+      }
+      place(pos, heap[child]);
+      pos = child;
+    }
+    place(pos, slot);
+  }
+
+  private void place(int pos, int slot) {
+    heap[pos] = slot;
+    heapPositions[slot] = pos;
+  }
+
+  @Override
+  public void reset() {
+    objectSlots.clear();
+    longSlots.clear();
+    for(int i = 0; i < size; i++) {
+      objectKeys[i] = null;
+    }
+    size = 0;
+    dirty = true;
+  }
+
+  /**
+   * Get the maximum amount any tracked count may be over-estimated by. This is the smallest tracked count once every counter is in use, otherwise 0.
+   *
+   * @return The error bound
+   */
+  public long getError() {
+    return size < capacity ? 0 : counts[heap[0]];
+  }
+
+  /**
+   * Iterate over the top K keys in descending order of count. Long keys are given as null keyObject.
+   *
+   * @param c The consumer to accept the top keys
+   */
+  public void forEach(TopKConsumer c) {
+    selectTop();
+    for(int i = 0; i < topSize; i++) {
+      final int slot = top[i];
+      c.accept(objectKeys[slot], longKeys[slot], counts[slot], errors[slot]);
+    }
+  }
+
+  private void selectTop() {
+    if(!dirty) {
+      return;
+    }
+    // insertion into a descending top-k array, k is expected to be small relative to capacity
+    topSize = 0;
+    for(int slot = 0; slot < size; slot++) {
+      final long count = counts[slot];
+      if(topSize == k && count <= counts[top[k - 1]]) {
+        continue;
+      }
+      int pos = topSize < k ? topSize++ : k - 1;
+      while(pos > 0 && counts[top[pos - 1]] < count) {
+        top[pos] = top[pos - 1];
+        pos--;
+      }
+      top[pos] = slot;
+    }
+    dirty = false;
+  }
+
+  private String keyString(int slot) {
+    final Object keyObject = objectKeys[slot];
+    return keyObject != null ? KEY_PREFIX + keyObject : KEY_PREFIX + longKeys[slot];
+  }
+
+  @Override
+  public String toString() {
+    selectTop();
+    final StringBuilder sb = new StringBuilder("[");
+    for(int i = 0; i < topSize; i++) {
+      sb.append(" ").append(keyString(top[i])).append("=").append(counts[top[i]]);
+    }
+    sb.append(" ] error=").append(getError());
+    return sb.toString();
+  }
+
+  @Override
+  public List<? extends Stat> stats() {
+    selectTop();
+    stats.clear();
+    for(int i = 0; i < topSize; i++) {
+      stats.add(topStats[i].setName(keyString(top[i])).setLongValue(counts[top[i]]));
+    }
+    stats.add(errorStat.setLongValue(getError()));
+    return statsUnmodifiable;
+  }
+
+  @Override
+  public void visit(StatVisitor visitor) {
+    selectTop();
+    for(int i = 0; i < topSize; i++) {
+      final int slot = top[i];
+      final Object keyObject = objectKeys[slot];
+      visitor.visitLong(keyObject != null ? statName.of(KEY_PREFIX, keyObject) : statName.of(KEY_PREFIX, longKeys[slot]), counts[slot]);
+    }
+    visitor.visitLong(errorStat.name(), getError());
+  }
+
+  /**
+   * Consumer of the top keys of a {@link TopKTracker}
+   */
+  @FunctionalInterface
+  public interface TopKConsumer {
+    /**
+     * @param keyObject The object key, or null for a long key
+     * @param keyLong   The long key, when keyObject is null
+     * @param count     The tracked count, which may be over-estimated by up to error
+     * @param error     The maximum over-estimation of this key's count
+     */
+    void accept(Object keyObject, long keyLong, long count, long error);
+  }
+}
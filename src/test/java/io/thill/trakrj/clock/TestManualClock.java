@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.clock;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Eric Thill
+ */
+public class TestManualClock {
+
+  @Test
+  public void testSetAndAdvance() {
+    final ManualClock clock = new ManualClock(1000);
+    Assert.assertEquals(1000, clock.millis());
+    clock.advance(500);
+    Assert.assertEquals(1500, clock.millis());
+    clock.set(100);
+    Assert.assertEquals(100, clock.millis());
+  }
+
+  @Test
+  public void testListenersSeeNewTime() {
+    final ManualClock clock = new ManualClock(0);
+    final AtomicLong seen = new AtomicLong(-1);
+    clock.addListener(() -> seen.set(clock.millis()));
+    clock.advance(10);
+    Assert.assertEquals(10, seen.get());
+    clock.set(50);
+    Assert.assertEquals(50, seen.get());
+  }
+
+  @Test
+  public void testRemoveListener() {
+    final ManualClock clock = new ManualClock(0);
+    final AtomicInteger calls = new AtomicInteger();
+    final Runnable listener = calls::incrementAndGet;
+    clock.addListener(listener);
+    clock.advance(1);
+    clock.removeListener(listener);
+    clock.advance(1);
+    Assert.assertEquals(1, calls.get());
+  }
+
+}
@@ -11,16 +11,146 @@
  */
 package io.thill.trakrj.internal.conductor;
 
+import io.thill.trakrj.Intervals;
+import io.thill.trakrj.TrackerId;
+import io.thill.trakrj.clock.ManualClock;
+import io.thill.trakrj.internal.conductor.RecordEvent.Type;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Calendar;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
 /**
  * @author Eric Thill
  */
 public class TestLogScheduler {
 
-  @Test
-  public void test() {
-    // FIXME implement
+  private static final long TIMEOUT_MILLIS = 5000;
+  private static final long QUIET_MILLIS = 100;
+
+  private final BlockingQueue<Tick> ticks = new LinkedBlockingQueue<>();
+  private RecordEventRingBuffer ringBuffer;
+  private ManualClock clock;
+  private LogScheduler scheduler;
+  private Thread reader;
+  private long midnight;
+
+  @Before
+  public void setup() {
+    final Calendar cal = Calendar.getInstance();
+    cal.set(Calendar.HOUR_OF_DAY, 0);
+    cal.set(Calendar.MINUTE, 0);
+    cal.set(Calendar.SECOND, 0);
+    cal.set(Calendar.MILLISECOND, 0);
+    midnight = cal.getTimeInMillis();
+
+    ringBuffer = new RecordEventRingBuffer(64);
+    clock = new ManualClock(midnight + 1);
+    scheduler = new LogScheduler(ringBuffer, clock);
+    reader = new Thread(() -> {
+      try {
+        while(true) {
+          final RecordEvent event = ringBuffer.take();
+          if(event.getType() == Type.TICK) {
+            ticks.add(event.getTick());
+          }
+          event.reset();
+        }
+      } catch(InterruptedException e) {
+        // stopped
+      }
+    });
+    reader.setDaemon(true);
+    reader.start();
+    scheduler.start();
+  }
+
+  @After
+  public void teardown() throws InterruptedException {
+    scheduler.close();
+    reader.interrupt();
+    reader.join();
+  }
+
+  @Test(timeout = 10_000)
+  public void testLogAndReset() throws InterruptedException {
+    final TrackerId id = TrackerId.generate("tracker");
+    scheduler.add(id, Intervals.seconds(5), Intervals.seconds(10));
+
+    clock.advance(4998);
+    Assert.assertNull(ticks.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS));
+
+    clock.advance(1);
+    Tick tick = ticks.poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    Assert.assertNotNull(tick);
+    Assert.assertEquals(1, tick.size());
+    Assert.assertSame(id, tick.id(0));
+    Assert.assertEquals(midnight + 5000, tick.timestamp(0));
+    Assert.assertFalse(tick.reset(0));
+
+    clock.advance(5000);
+    tick = ticks.poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    Assert.assertNotNull(tick);
+    Assert.assertEquals(midnight + 10_000, tick.timestamp(0));
+    Assert.assertTrue(tick.reset(0));
+  }
+
+  @Test(timeout = 10_000)
+  public void testLongIntervalsRunWithoutWaiting() throws InterruptedException {
+    final TrackerId id = TrackerId.generate("tracker");
+    scheduler.add(id, Intervals.hours(1), Intervals.never());
+    for(int hour = 1; hour <= 24; hour++) {
+      clock.advance(TimeUnit.HOURS.toMillis(1));
+      final Tick tick = ticks.poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+      Assert.assertNotNull("hour " + hour, tick);
+      Assert.assertEquals(midnight + TimeUnit.HOURS.toMillis(hour), tick.timestamp(0));
+      Assert.assertFalse(tick.reset(0));
+    }
+  }
+
+  @Test(timeout = 10_000)
+  public void testMissedLogsDispatchedInOrder() throws InterruptedException {
+    final TrackerId id = TrackerId.generate("tracker");
+    scheduler.add(id, Intervals.seconds(1), Intervals.never());
+    // jumping past several logs dispatches each of them in order
+    clock.advance(3000);
+    for(int i = 1; i <= 3; i++) {
+      final Tick tick = ticks.poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+      Assert.assertNotNull(tick);
+      Assert.assertEquals(midnight + i * 1000, tick.timestamp(0));
+    }
+    Assert.assertNull(ticks.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS));
+  }
+
+  @Test(timeout = 10_000)
+  public void testTrackersDueTogetherShareTick() throws InterruptedException {
+    final TrackerId first = TrackerId.generate("first");
+    final TrackerId second = TrackerId.generate("second");
+    scheduler.add(first, Intervals.seconds(5), Intervals.never());
+    scheduler.add(second, Intervals.seconds(5), Intervals.seconds(5));
+    clock.advance(4999);
+    final Tick tick = ticks.poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    Assert.assertNotNull(tick);
+    Assert.assertEquals(2, tick.size());
+    Assert.assertFalse(tick.reset(0));
+    Assert.assertTrue(tick.reset(1));
+  }
+
+  @Test(timeout = 10_000)
+  public void testSample() throws InterruptedException {
+    final TrackerId id = TrackerId.generate("tracker");
+    scheduler.add(id, Intervals.seconds(5), Intervals.never(), Intervals.seconds(1));
+    clock.advance(999);
+    final Tick tick = ticks.poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    Assert.assertNotNull(tick);
+    Assert.assertEquals(0, tick.size());
+    Assert.assertEquals(1, tick.sampleSize());
+    Assert.assertEquals(midnight + 1000, tick.sampleTimestamp(0));
   }
 
 }
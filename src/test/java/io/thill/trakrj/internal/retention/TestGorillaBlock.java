@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.internal.retention;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Eric Thill
+ */
+public class TestGorillaBlock {
+
+  @Test
+  public void testRegularInterval() {
+    final GorillaBlock block = new GorillaBlock(512);
+    final List<long[]> expected = new ArrayList<>();
+    for(int i = 0; i < 100; i++) {
+      final long timestamp = 1_700_000_000_000L + i * 5000L;
+      final double value = i % 10;
+      Assert.assertTrue(block.append(timestamp, value));
+      expected.add(new long[] { timestamp, Double.doubleToRawLongBits(value) });
+    }
+    assertPoints(expected, block, Long.MIN_VALUE, Long.MAX_VALUE);
+    Assert.assertEquals(100, block.count());
+    Assert.assertEquals(1_700_000_000_000L, block.firstTimestamp());
+    Assert.assertEquals(1_700_000_000_000L + 99 * 5000L, block.lastTimestamp());
+  }
+
+  @Test
+  public void testRange() {
+    final GorillaBlock block = new GorillaBlock(512);
+    final List<long[]> expected = new ArrayList<>();
+    for(int i = 0; i < 10; i++) {
+      block.append(i * 1000L, i);
+      if(i >= 3 && i <= 6) {
+        expected.add(new long[] { i * 1000L, Double.doubleToRawLongBits(i) });
+      }
+    }
+    assertPoints(expected, block, 3000, 6000);
+  }
+
+  @Test
+  public void test64BitDeltaOfDelta() {
+    final long[] timestamps = { -5, 0, 1, 1L << 40, (1L << 40) + 1, Long.MAX_VALUE / 2, Long.MAX_VALUE / 2 + 2048, Long.MAX_VALUE / 2 + 4097,
+            Long.MAX_VALUE - 1, Long.MAX_VALUE };
+    final GorillaBlock block = new GorillaBlock(512);
+    final List<long[]> expected = new ArrayList<>();
+    for(long timestamp : timestamps) {
+      Assert.assertTrue(block.append(timestamp, 1.5));
+      expected.add(new long[] { timestamp, Double.doubleToRawLongBits(1.5) });
+    }
+    assertPoints(expected, block, Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+  @Test
+  public void testDeltaOfDeltaBoundaries() {
+    // step the delta-of-delta across the edge of every encoded range, in both directions
+    final long[] dods = { 63, 64, -64, -65, 255, 256, -256, -257, 2047, 2048, -2048, -2049 };
+    final GorillaBlock block = new GorillaBlock(1024);
+    final List<long[]> expected = new ArrayList<>();
+    long timestamp = 0;
+    long delta = 10_000;
+    block.append(timestamp, 0);
+    expected.add(new long[] { timestamp, Double.doubleToRawLongBits(0) });
+    timestamp += delta;
+    block.append(timestamp, 0);
+    expected.add(new long[] { timestamp, Double.doubleToRawLongBits(0) });
+    for(long dod : dods) {
+      delta += dod;
+      timestamp += delta;
+      Assert.assertTrue(block.append(timestamp, 0));
+      expected.add(new long[] { timestamp, Double.doubleToRawLongBits(0) });
+    }
+    assertPoints(expected, block, Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+  @Test
+  public void test64MeaningfulBits() {
+    // an XOR with the sign bit and the lowest bit set has no leading or trailing zeros
+    final long[] valueBits = { 0L, 0x8000000000000001L, 0L, 0xFFFFFFFFFFFFFFFFL, 0x0000000000000001L, 0x8000000000000000L, 0x7FFFFFFFFFFFFFFEL };
+    final GorillaBlock block = new GorillaBlock(512);
+    final List<long[]> expected = new ArrayList<>();
+    for(int i = 0; i < valueBits.length; i++) {
+      Assert.assertTrue(block.append(i, Double.longBitsToDouble(valueBits[i])));
+      expected.add(new long[] { i, valueBits[i] });
+    }
+    assertPoints(expected, block, Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+  @Test
+  public void testNaNAndInfinity() {
+    final double[] values = { Double.NaN, 1.0, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, -0.0, 0.0, Double.MIN_VALUE,
+            Double.MAX_VALUE, Double.longBitsToDouble(0x7FF8000000000123L) };
+    final GorillaBlock block = new GorillaBlock(512);
+    final List<long[]> expected = new ArrayList<>();
+    for(int i = 0; i < values.length; i++) {
+      Assert.assertTrue(block.append(i * 1000L, values[i]));
+      expected.add(new long[] { i * 1000L, Double.doubleToRawLongBits(values[i]) });
+    }
+    assertPoints(expected, block, Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+  @Test
+  public void testBlockFull() {
+    final GorillaBlock block = new GorillaBlock(64);
+    final List<long[]> expected = new ArrayList<>();
+    long timestamp = 0;
+    long valueBits = 0x0123456789ABCDEFL;
+    int appended = 0;
+    while(true) {
+      // irregular timestamps and random-looking values use the widest encodings
+      timestamp += 1 + (appended * 7919L) % 100_000;
+      valueBits = valueBits * 6364136223846793005L + 1442695040888963407L;
+      if(!block.append(timestamp, Double.longBitsToDouble(valueBits))) {
+        break;
+      }
+      expected.add(new long[] { timestamp, valueBits });
+      appended++;
+    }
+    Assert.assertTrue(appended > 1);
+    Assert.assertTrue(block.sizeBits() <= 64 * 8);
+    Assert.assertEquals(appended, block.count());
+    Assert.assertFalse(block.append(timestamp + 1, 0));
+    assertPoints(expected, block, Long.MIN_VALUE, Long.MAX_VALUE);
+
+    block.reset();
+    Assert.assertEquals(0, block.count());
+    Assert.assertTrue(block.append(5, 5.0));
+    final List<long[]> reused = new ArrayList<>();
+    reused.add(new long[] { 5, Double.doubleToRawLongBits(5.0) });
+    assertPoints(reused, block, Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+  private static void assertPoints(List<long[]> expected, GorillaBlock block, long fromTimestamp, long toTimestamp) {
+    final List<long[]> actual = new ArrayList<>();
+    block.forEach(fromTimestamp, toTimestamp, (t, v) -> actual.add(new long[] { t, Double.doubleToRawLongBits(v) }));
+    Assert.assertEquals(expected.size(), actual.size());
+    for(int i = 0; i < expected.size(); i++) {
+      Assert.assertEquals("timestamp " + i, expected.get(i)[0], actual.get(i)[0]);
+      Assert.assertEquals("value " + i, expected.get(i)[1], actual.get(i)[1]);
+    }
+  }
+
+}
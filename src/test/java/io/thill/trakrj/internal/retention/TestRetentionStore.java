@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.internal.retention;
+
+import io.thill.trakrj.Stat.StatKind;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @author Eric Thill
+ */
+public class TestRetentionStore {
+
+  @Test
+  public void testTierSelection() {
+    final RetentionStore store = new RetentionStore(RetentionTier.parseAll("tick:10s,1m:1h"));
+    for(long t = 1000; t <= 120_000; t += 1000) {
+      store.begin("tracker", t);
+      store.append("count", 1, StatKind.DELTA);
+      store.end();
+    }
+    final List<Double> values = new ArrayList<>();
+    Assert.assertEquals(0, store.query("tracker", "count", 115_000, 120_000, (timestamp, value) -> values.add(value)));
+    Assert.assertEquals(6, values.size());
+
+    values.clear();
+    Assert.assertEquals(60_000, store.query("tracker", "count", 0, 120_000, (timestamp, value) -> values.add(value)));
+    // deltas are summed into minute buckets, including the bucket in progress
+    Assert.assertEquals(3, values.size());
+    Assert.assertEquals(59, values.get(0), 0.0);
+    Assert.assertEquals(60, values.get(1), 0.0);
+    Assert.assertEquals(1, values.get(2), 0.0);
+
+    values.clear();
+    Assert.assertEquals(60_000, store.query("tracker", "count", 30_000, 115_000, 120_000, (timestamp, value) -> values.add(value)));
+    Assert.assertEquals(-1, store.query("tracker", "missing", 0, 120_000, (timestamp, value) -> values.add(value)));
+  }
+
+  @Test
+  public void testStaleTrackerDropped() {
+    final RetentionStore store = new RetentionStore(RetentionTier.parseAll("tick:10s"));
+    store.begin("stopped", 1000);
+    store.append("value", 1);
+    store.end();
+    for(long t = 2000; t <= 11_000; t += 1000) {
+      store.begin("running", t);
+      store.append("value", 1);
+      store.end();
+    }
+    Assert.assertTrue(store.trackers().contains("stopped"));
+
+    store.begin("running", 12_000);
+    store.append("value", 1);
+    store.end();
+    Assert.assertFalse(store.trackers().contains("stopped"));
+    Assert.assertTrue(store.trackers().contains("running"));
+    Assert.assertEquals(-1, store.query("stopped", "value", 0, 12_000, (timestamp, value) -> {}));
+  }
+
+  @Test(timeout = 10_000)
+  public void testConsumerCalledOutsideLock() throws InterruptedException {
+    final RetentionStore store = new RetentionStore(RetentionTier.parseAll("tick:1h"));
+    store.begin("tracker", 1000);
+    store.append("value", 1);
+    store.end();
+
+    final AtomicBoolean appended = new AtomicBoolean();
+    final Thread writer = new Thread(() -> {
+      store.begin("tracker", 2000);
+      store.append("value", 2);
+      store.end();
+      appended.set(true);
+    });
+    store.query("tracker", "value", 0, 1000, (timestamp, value) -> {
+      // a consumer that blocks must not stop the store from being written
+      writer.start();
+      try {
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+      } catch(InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    Assert.assertTrue(appended.get());
+  }
+
+}
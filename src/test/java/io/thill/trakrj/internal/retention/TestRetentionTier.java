@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.internal.retention;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * @author Eric Thill
+ */
+public class TestRetentionTier {
+
+  @Test
+  public void testParse() {
+    assertTier(RetentionTier.TICK, 3_600_000L, RetentionTier.parse("tick:1h"));
+    assertTier(60_000L, 86_400_000L, RetentionTier.parse("1m:1d"));
+    assertTier(500L, 10_000L, RetentionTier.parse("500ms:10s"));
+    assertTier(3_600_000L, 7 * 86_400_000L, RetentionTier.parse(" 1h : 7d "));
+  }
+
+  @Test
+  public void testParseAll() {
+    final List<RetentionTier> tiers = RetentionTier.parseAll("tick:1h, 1m:1d,,1h:7d");
+    Assert.assertEquals(3, tiers.size());
+    assertTier(RetentionTier.TICK, 3_600_000L, tiers.get(0));
+    assertTier(60_000L, 86_400_000L, tiers.get(1));
+    assertTier(3_600_000L, 7 * 86_400_000L, tiers.get(2));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMissingRetention() {
+    RetentionTier.parse("1m");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTooManyParts() {
+    RetentionTier.parse("1m:1d:1w");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMissingAmount() {
+    RetentionTier.parse("m:1d");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownUnit() {
+    RetentionTier.parse("1m:1w");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testZeroRetention() {
+    RetentionTier.parse("tick:0s");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoTiers() {
+    RetentionTier.parseAll(" , ");
+  }
+
+  private static void assertTier(long resolutionMillis, long retentionMillis, RetentionTier tier) {
+    Assert.assertEquals(resolutionMillis, tier.getResolutionMillis());
+    Assert.assertEquals(retentionMillis, tier.getRetentionMillis());
+  }
+
+}
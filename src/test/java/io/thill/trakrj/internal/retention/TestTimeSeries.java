@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.internal.retention;
+
+import io.thill.trakrj.Stat.StatKind;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Eric Thill
+ */
+public class TestTimeSeries {
+
+  private static final long START = 1_700_000_040_000L - (1_700_000_040_000L % 3_600_000L);
+
+  @Test
+  public void testRecycling() {
+    final TimeSeries series = new TimeSeries(new RetentionTier(RetentionTier.TICK, 60_000L), 64, StatKind.GAUGE);
+    long maxSize = 0;
+    long timestamp = START;
+    for(int i = 0; i < 10_000; i++) {
+      timestamp = START + i * 1000L;
+      // values that change every point so blocks fill up quickly
+      series.add(timestamp, i * 1.1);
+      maxSize = Math.max(maxSize, series.sizeBytes());
+    }
+    final long last = timestamp;
+
+    // memory is bounded by the retention, not by the number of points
+    Assert.assertTrue("maxSize=" + maxSize, maxSize <= 64 * 16);
+
+    final List<Long> timestamps = new ArrayList<>();
+    series.forEach(Long.MIN_VALUE, Long.MAX_VALUE, (t, v) -> timestamps.add(t));
+    Assert.assertEquals(last - 60_000L, (long)timestamps.get(0));
+    Assert.assertEquals(last, (long)timestamps.get(timestamps.size() - 1));
+    Assert.assertEquals(61, timestamps.size());
+  }
+
+  @Test
+  public void testOutOfOrderDropped() {
+    final TimeSeries series = new TimeSeries(new RetentionTier(RetentionTier.TICK, 60_000L), 512, StatKind.GAUGE);
+    series.add(START + 2000, 2);
+    series.add(START + 1000, 1);
+    series.add(START + 2000, 3);
+    series.add(START + 3000, 4);
+    final List<Double> values = new ArrayList<>();
+    series.forEach(Long.MIN_VALUE, Long.MAX_VALUE, (t, v) -> values.add(v));
+    Assert.assertEquals(2, values.size());
+    Assert.assertEquals(2.0, values.get(0), 0.0);
+    Assert.assertEquals(4.0, values.get(1), 0.0);
+  }
+
+  @Test
+  public void testGaugeAverage() {
+    final List<Double> values = downsample(StatKind.GAUGE);
+    Assert.assertEquals(3, values.size());
+    Assert.assertEquals(5.5, values.get(0), 0.0);
+    Assert.assertEquals(17.5, values.get(1), 0.0);
+    // the bucket in progress is included
+    Assert.assertEquals(24.5, values.get(2), 0.0);
+  }
+
+  @Test
+  public void testDeltaSum() {
+    final List<Double> values = downsample(StatKind.DELTA);
+    Assert.assertEquals(3, values.size());
+    Assert.assertEquals(66.0, values.get(0), 0.0);
+    Assert.assertEquals(210.0, values.get(1), 0.0);
+    Assert.assertEquals(49.0, values.get(2), 0.0);
+  }
+
+  @Test
+  public void testCounterLast() {
+    final List<Double> values = downsample(StatKind.COUNTER);
+    Assert.assertEquals(3, values.size());
+    Assert.assertEquals(11.0, values.get(0), 0.0);
+    Assert.assertEquals(23.0, values.get(1), 0.0);
+    Assert.assertEquals(25.0, values.get(2), 0.0);
+  }
+
+  /**
+   * Add the values 0 through 25, one every 5 seconds, to a 1 minute tier
+   */
+  private static List<Double> downsample(StatKind kind) {
+    final TimeSeries series = new TimeSeries(new RetentionTier(60_000L, 3_600_000L), 512, kind);
+    for(int i = 0; i < 26; i++) {
+      series.add(START + i * 5000L, i);
+    }
+    final List<Double> values = new ArrayList<>();
+    final List<Long> timestamps = new ArrayList<>();
+    series.forEach(Long.MIN_VALUE, Long.MAX_VALUE, (t, v) -> {
+      timestamps.add(t);
+      values.add(v);
+    });
+    for(int i = 0; i < timestamps.size(); i++) {
+      Assert.assertEquals(START + i * 60_000L, (long)timestamps.get(i));
+    }
+    return values;
+  }
+
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.trackers;
+
+import io.thill.trakrj.Record;
+
+/**
+ * A reusable {@link Record} for driving trackers directly in tests
+ *
+ * @author Eric Thill
+ */
+class MutableRecord implements Record {
+
+  private long timestamp = NO_TIMESTAMP;
+  private long keyLong;
+  private double keyDouble;
+  private Object keyObject;
+  private long valueLong;
+  private double valueDouble;
+  private Object valueObject;
+
+  MutableRecord key(long keyLong) {
+    this.keyLong = keyLong;
+    this.keyObject = null;
+    return this;
+  }
+
+  MutableRecord key(Object keyObject) {
+    this.keyObject = keyObject;
+    return this;
+  }
+
+  MutableRecord value(long valueLong) {
+    this.valueLong = valueLong;
+    return this;
+  }
+
+  MutableRecord value(double valueDouble) {
+    this.valueDouble = valueDouble;
+    return this;
+  }
+
+  @Override
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  @Override
+  public long getKeyLong() {
+    return keyLong;
+  }
+
+  @Override
+  public double getKeyDouble() {
+    return keyDouble;
+  }
+
+  @Override
+  public Object getKeyObject() {
+    return keyObject;
+  }
+
+  @Override
+  public long getValueLong() {
+    return valueLong;
+  }
+
+  @Override
+  public double getValueDouble() {
+    return valueDouble;
+  }
+
+  @Override
+  public Object getValueObject() {
+    return valueObject;
+  }
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.trackers;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Eric Thill
+ */
+public class TestDistinctCountTracker {
+
+  @Test
+  public void testLargeCardinality() {
+    final DistinctCountTracker tracker = new DistinctCountTracker();
+    final MutableRecord record = new MutableRecord();
+    final int n = 1_000_000;
+    for(int i = 0; i < n; i++) {
+      tracker.record(record.key(i));
+    }
+    // within 4 standard errors
+    Assert.assertEquals(n, tracker.getEstimate(), 4 * tracker.getRelativeError() * n);
+  }
+
+  @Test
+  public void testSmallCardinality() {
+    final DistinctCountTracker tracker = new DistinctCountTracker();
+    final MutableRecord record = new MutableRecord();
+    Assert.assertEquals(0, tracker.getEstimate());
+    for(int i = 0; i < 10; i++) {
+      tracker.record(record.key("key" + i));
+    }
+    Assert.assertEquals(10, tracker.getEstimate());
+  }
+
+  @Test
+  public void testDuplicates() {
+    final DistinctCountTracker tracker = new DistinctCountTracker();
+    final MutableRecord record = new MutableRecord();
+    for(int repeat = 0; repeat < 10; repeat++) {
+      for(int i = 0; i < 1000; i++) {
+        tracker.record(record.key(i));
+      }
+    }
+    Assert.assertEquals(1000, tracker.getEstimate(), 4 * tracker.getRelativeError() * 1000);
+  }
+
+  @Test
+  public void testMerge() {
+    final DistinctCountTracker a = new DistinctCountTracker();
+    final DistinctCountTracker b = new DistinctCountTracker();
+    final MutableRecord record = new MutableRecord();
+    for(int i = 0; i < 60_000; i++) {
+      a.record(record.key(i));
+    }
+    for(int i = 40_000; i < 100_000; i++) {
+      b.record(record.key(i));
+    }
+    a.merge(b);
+    Assert.assertEquals(100_000, a.getEstimate(), 4 * a.getRelativeError() * 100_000);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMergeDifferentPrecision() {
+    new DistinctCountTracker(10).merge(new DistinctCountTracker(12));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidPrecision() {
+    new DistinctCountTracker(DistinctCountTracker.MAX_PRECISION + 1);
+  }
+
+  @Test
+  public void testReset() {
+    final DistinctCountTracker tracker = new DistinctCountTracker();
+    final MutableRecord record = new MutableRecord();
+    for(int i = 0; i < 1000; i++) {
+      tracker.record(record.key(i));
+    }
+    tracker.reset();
+    Assert.assertEquals(0, tracker.getEstimate());
+  }
+
+}
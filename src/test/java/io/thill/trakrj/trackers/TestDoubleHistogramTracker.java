@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.trackers;
+
+import io.thill.trakrj.Stat;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author Eric Thill
+ */
+public class TestDoubleHistogramTracker {
+
+  private static final List<Double> PERCENTILES = Arrays.asList(0.0, 1.0, 10.0, 25.0, 50.0, 75.0, 90.0, 99.0, 99.9, 100.0);
+
+  @Test
+  public void testStatsMatchPercentiles() {
+    final Random random = new Random(42);
+    final MutableRecord record = new MutableRecord();
+    for(double negativeFraction : new double[] { 0, 0.3, 1 }) {
+      final DoubleHistogramTracker tracker = new DoubleHistogramTracker(PERCENTILES);
+      for(int i = 0; i < 1000; i++) {
+        final double magnitude = Math.exp(random.nextGaussian() * 2);
+        tracker.record(record.value(random.nextDouble() < negativeFraction ? -magnitude : magnitude));
+      }
+      assertStatsMatch(tracker);
+    }
+  }
+
+  @Test
+  public void testNegativeValues() {
+    final DoubleHistogramTracker tracker = new DoubleHistogramTracker(Arrays.asList(0.0, 50.0, 100.0));
+    final MutableRecord record = new MutableRecord();
+    for(int i = 1; i <= 3; i++) {
+      tracker.record(record.value(-100.0 * i));
+    }
+    tracker.record(record.value(1.0));
+    final List<? extends Stat> stats = tracker.stats();
+    Assert.assertEquals(-300.0, stats.get(0).doubleValue(), 0.5);
+    Assert.assertEquals(-200.0, stats.get(1).doubleValue(), 0.5);
+    Assert.assertEquals(1.0, stats.get(2).doubleValue(), 0.01);
+    Assert.assertEquals(4, stats.get(3).longValue());
+  }
+
+  @Test
+  public void testReset() {
+    final DoubleHistogramTracker tracker = new DoubleHistogramTracker(PERCENTILES);
+    final MutableRecord record = new MutableRecord();
+    tracker.record(record.value(-5.0));
+    tracker.stats();
+    tracker.reset();
+    for(Stat stat : tracker.stats()) {
+      Assert.assertEquals(0, stat.type() == Stat.StatType.LONG ? stat.longValue() : stat.doubleValue(), 0.0);
+    }
+    tracker.record(record.value(5.0));
+    assertStatsMatch(tracker);
+  }
+
+  private static void assertStatsMatch(DoubleHistogramTracker tracker) {
+    final List<? extends Stat> stats = tracker.stats();
+    for(int i = 0; i < PERCENTILES.size(); i++) {
+      final double percentile = PERCENTILES.get(i);
+      final double expected = percentile == 0.0 ? tracker.getMinValue()
+              : percentile == 100.0 ? tracker.getMaxValue()
+              : tracker.getValueAtPercentile(percentile);
+      Assert.assertEquals("p" + percentile, expected, stats.get(i).doubleValue(), 0.0);
+    }
+    Assert.assertEquals(tracker.getTotalCount(), stats.get(PERCENTILES.size()).longValue());
+  }
+
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.trackers;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author Eric Thill
+ */
+public class TestQuantileSketchTracker {
+
+  private static final int N = 100_000;
+  // generous bound on the normalized rank error for k=200
+  private static final double RANK_ERROR = 0.02;
+
+  @Test
+  public void testQuantiles() {
+    final QuantileSketchTracker tracker = new QuantileSketchTracker();
+    final MutableRecord record = new MutableRecord();
+    for(double value : shuffled(1, N)) {
+      tracker.record(record.value(value));
+    }
+    Assert.assertEquals(N, tracker.getTotalCount());
+    Assert.assertEquals(1.0, tracker.getMinValue(), 0.0);
+    Assert.assertEquals(N, tracker.getMaxValue(), 0.0);
+    for(double pct : new double[] { 10, 50, 90, 99 }) {
+      Assert.assertEquals("p" + pct, pct / 100 * N, tracker.getValueAtPercentile(pct), RANK_ERROR * N);
+    }
+  }
+
+  @Test
+  public void testNaNIgnored() {
+    final QuantileSketchTracker tracker = new QuantileSketchTracker();
+    final MutableRecord record = new MutableRecord();
+    tracker.record(record.value(Double.NaN));
+    tracker.record(record.value(5.0));
+    Assert.assertEquals(1, tracker.getTotalCount());
+    Assert.assertEquals(5.0, tracker.getValueAtPercentile(50), 0.0);
+  }
+
+  @Test
+  public void testMerge() {
+    final QuantileSketchTracker low = new QuantileSketchTracker();
+    final QuantileSketchTracker high = new QuantileSketchTracker();
+    final MutableRecord record = new MutableRecord();
+    for(double value : shuffled(1, N / 2)) {
+      low.record(record.value(value));
+    }
+    for(double value : shuffled(N / 2 + 1, N)) {
+      high.record(record.value(value));
+    }
+    low.merge(high);
+    Assert.assertEquals(N, low.getTotalCount());
+    Assert.assertEquals(1.0, low.getMinValue(), 0.0);
+    Assert.assertEquals(N, low.getMaxValue(), 0.0);
+    Assert.assertEquals(N / 2, low.getValueAtPercentile(50), RANK_ERROR * N);
+  }
+
+  @Test(expected = IllegalArgumentException.class, timeout = 10_000)
+  public void testSelfMergeRejected() {
+    final QuantileSketchTracker tracker = new QuantileSketchTracker();
+    final MutableRecord record = new MutableRecord();
+    tracker.record(record.value(1.0));
+    tracker.merge(tracker);
+  }
+
+  @Test
+  public void testReset() {
+    final QuantileSketchTracker tracker = new QuantileSketchTracker();
+    final MutableRecord record = new MutableRecord();
+    for(double value : shuffled(1, 1000)) {
+      tracker.record(record.value(value));
+    }
+    tracker.reset();
+    Assert.assertEquals(0, tracker.getTotalCount());
+    tracker.record(record.value(7.0));
+    Assert.assertEquals(7.0, tracker.getMinValue(), 0.0);
+    Assert.assertEquals(7.0, tracker.getMaxValue(), 0.0);
+  }
+
+  private static List<Double> shuffled(int from, int to) {
+    final List<Double> values = new ArrayList<>();
+    for(int i = from; i <= to; i++) {
+      values.add((double)i);
+    }
+    Collections.shuffle(values, new Random(42));
+    return values;
+  }
+
+}
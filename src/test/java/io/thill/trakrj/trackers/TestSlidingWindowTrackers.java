@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.trackers;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Eric Thill
+ */
+public class TestSlidingWindowTrackers {
+
+  @Test
+  public void testSlidingAggregate() {
+    final SlidingAggregateLongTracker tracker = new SlidingAggregateLongTracker(3);
+    final MutableRecord record = new MutableRecord();
+    final long[] expected = { 1, 3, 6, 9, 12, 15 };
+    for(int interval = 1; interval <= expected.length; interval++) {
+      tracker.record(record.value((long)interval));
+      tracker.tick(interval * 1000L);
+      Assert.assertEquals("interval " + interval, expected[interval - 1], tracker.getValue());
+    }
+    // buckets leave the window without records
+    tracker.tick(7000);
+    Assert.assertEquals(11, tracker.getValue());
+    Assert.assertTrue(tracker.changedSinceLastLog());
+    tracker.tick(8000);
+    tracker.tick(9000);
+    Assert.assertEquals(0, tracker.getValue());
+    tracker.tick(10000);
+    Assert.assertFalse(tracker.changedSinceLastLog());
+  }
+
+  @Test
+  public void testSlidingAverage() {
+    final SlidingAverageDoubleTracker tracker = new SlidingAverageDoubleTracker(2);
+    final MutableRecord record = new MutableRecord();
+    tracker.record(record.value(1.0));
+    tracker.record(record.value(3.0));
+    tracker.tick(1000);
+    Assert.assertEquals(2.0, tracker.getValue(), 0.0);
+    tracker.record(record.value(8.0));
+    tracker.tick(2000);
+    Assert.assertEquals(4.0, tracker.getValue(), 0.0);
+    tracker.tick(3000);
+    Assert.assertEquals(8.0, tracker.getValue(), 0.0);
+    tracker.tick(4000);
+    Assert.assertTrue(Double.isNaN(tracker.getValue()));
+  }
+
+  @Test
+  public void testSlidingAverageWraps() {
+    // run the ring around many times so incremental updates would accumulate any drift
+    final SlidingAverageDoubleTracker tracker = new SlidingAverageDoubleTracker(4);
+    final MutableRecord record = new MutableRecord();
+    for(int interval = 1; interval <= 1000; interval++) {
+      tracker.record(record.value(interval * 0.1));
+      tracker.tick(interval * 1000L);
+    }
+    Assert.assertEquals((997 + 998 + 999 + 1000) * 0.1 / 4, tracker.getValue(), 1e-9);
+  }
+
+  @Test
+  public void testSlidingHistogram() {
+    final SlidingHistogramTracker tracker = new SlidingHistogramTracker(2);
+    final MutableRecord record = new MutableRecord();
+    tracker.record(record.value(10L));
+    tracker.tick(1000);
+    Assert.assertEquals(1, tracker.getTotalCount());
+    tracker.record(record.value(20L));
+    tracker.record(record.value(30L));
+    tracker.tick(2000);
+    Assert.assertEquals(3, tracker.getTotalCount());
+    Assert.assertEquals(10, tracker.getMinValue());
+    tracker.tick(3000);
+    Assert.assertEquals(2, tracker.getTotalCount());
+    Assert.assertEquals(20, tracker.getMinValue());
+    Assert.assertEquals(30, tracker.getMaxValue());
+    tracker.tick(4000);
+    Assert.assertEquals(0, tracker.getTotalCount());
+  }
+
+  @Test
+  public void testReset() {
+    final SlidingAggregateLongTracker tracker = new SlidingAggregateLongTracker(3);
+    final MutableRecord record = new MutableRecord();
+    tracker.record(record.value(5L));
+    tracker.tick(1000);
+    tracker.reset();
+    Assert.assertEquals(0, tracker.getValue());
+    tracker.tick(2000);
+    Assert.assertEquals(0, tracker.getValue());
+  }
+
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2019 Eric Thill
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License. You may obtain a copy of the
+ * License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR
+ * CONDITIONS OF ANY KIND, either express or implied. See the License for the specific language governing permissions and limitations under the License.
+ */
+package io.thill.trakrj.trackers;
+
+import io.thill.trakrj.Stat;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * @author Eric Thill
+ */
+public class TestTopKTracker {
+
+  @Test
+  public void testHeavyHittersFound() {
+    final TopKTracker tracker = new TopKTracker(3);
+    final MutableRecord record = new MutableRecord();
+    final Random random = new Random(42);
+    final long[] trueCounts = new long[3];
+    for(int i = 0; i < 100_000; i++) {
+      if(i % 10 < 3) {
+        // three heavy keys make up 30% of records
+        final int heavy = i % 10;
+        trueCounts[heavy]++;
+        tracker.record(record.key("heavy" + heavy));
+      } else {
+        tracker.record(record.key(random.nextInt(1_000_000)));
+      }
+    }
+    final Map<Object, long[]> top = top(tracker);
+    Assert.assertEquals(3, top.size());
+    for(int i = 0; i < 3; i++) {
+      final long[] countAndError = top.get("heavy" + i);
+      Assert.assertNotNull("heavy" + i, countAndError);
+      // counts are over-estimated by at most the error
+      Assert.assertTrue(countAndError[0] >= trueCounts[i]);
+      Assert.assertTrue(countAndError[0] - countAndError[1] <= trueCounts[i]);
+      Assert.assertTrue(countAndError[0] - trueCounts[i] <= tracker.getError());
+    }
+  }
+
+  @Test
+  public void testExactBelowCapacity() {
+    // one counter is left free, so no key has been evicted and the error is zero
+    final TopKTracker tracker = new TopKTracker(2, 5, TopKTracker.Mode.COUNT);
+    final MutableRecord record = new MutableRecord();
+    for(int key = 1; key <= 4; key++) {
+      for(int i = 0; i < key; i++) {
+        tracker.record(record.key(key));
+      }
+    }
+    Assert.assertEquals(0, tracker.getError());
+    final List<String> names = new ArrayList<>();
+    final List<Long> counts = new ArrayList<>();
+    for(Stat stat : tracker.stats()) {
+      names.add(stat.name());
+      counts.add(stat.longValue());
+    }
+    Assert.assertEquals(3, names.size());
+    Assert.assertEquals("top.4", names.get(0));
+    Assert.assertEquals(4, (long)counts.get(0));
+    Assert.assertEquals("top.3", names.get(1));
+    Assert.assertEquals(3, (long)counts.get(1));
+    Assert.assertEquals("error", names.get(2));
+  }
+
+  @Test
+  public void testKeyNamedError() {
+    final TopKTracker tracker = new TopKTracker(2);
+    final MutableRecord record = new MutableRecord();
+    tracker.record(record.key("error"));
+    final List<? extends Stat> stats = tracker.stats();
+    Assert.assertEquals("top.error", stats.get(0).name());
+    Assert.assertEquals("error", stats.get(1).name());
+  }
+
+  @Test
+  public void testSumIgnoresNegative() {
+    final TopKTracker tracker = new TopKTracker(2, 2, TopKTracker.Mode.SUM);
+    final MutableRecord record = new MutableRecord();
+    tracker.record(record.key("a").value(10L));
+    tracker.record(record.key("b").value(5L));
+    tracker.record(record.key("a").value(-100L));
+    tracker.record(record.key("c").value(1L));
+    // "c" replaces the smallest counter, which is "b"
+    final Map<Object, long[]> top = top(tracker);
+    Assert.assertEquals(10, top.get("a")[0]);
+    Assert.assertEquals(6, top.get("c")[0]);
+    Assert.assertEquals(5, top.get("c")[1]);
+    Assert.assertNull(top.get("b"));
+  }
+
+  @Test
+  public void testReset() {
+    final TopKTracker tracker = new TopKTracker(2);
+    final MutableRecord record = new MutableRecord();
+    tracker.record(record.key("a"));
+    tracker.reset();
+    Assert.assertTrue(top(tracker).isEmpty());
+    tracker.record(record.key("b"));
+    Assert.assertEquals(1, top(tracker).get("b")[0]);
+  }
+
+  private static Map<Object, long[]> top(TopKTracker tracker) {
+    final Map<Object, long[]> top = new LinkedHashMap<>();
+    tracker.forEach((keyObject, keyLong, count, error) -> top.put(keyObject != null ? keyObject : keyLong, new long[] { count, error }));
+    return top;
+  }
+
+}